@@ -0,0 +1,99 @@
+package Benchmarks;
+
+import Utils.CsvUtil;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files written with -rf csv, for example from two commits,
+ * and lists every benchmark present in both with its change. Exits with status 2 if
+ * any benchmark got slower by more than the threshold, so it can gate a build.
+ *
+ * Usage: java -cp benchmarks.jar Benchmarks.CompareResults base.csv new.csv [threshold %]
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java Benchmarks.CompareResults base.csv new.csv [threshold %]");
+            System.exit(1);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Result> base = read(args[0]);
+        Map<String, Result> current = read(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "base", "new", "change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result before = base.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            Result after = entry.getValue();
+            // Positive is worse: more time per operation, or fewer operations per time unit
+            double change = (after.score - before.score) / before.score * 100;
+            if (!after.timePerOperation) {
+                change = -change;
+            }
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), before.score, after.score,
+                    change, after.unit, regressed ? "  REGRESSION" : "");
+        }
+        System.out.println(regressions + " regression(s) above " + threshold + "%");
+        if (regressions > 0) {
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Benchmark name plus parameters -> result
+     */
+    private static Map<String, Result> read(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        Map<String, Result> results = new LinkedHashMap<>();
+        if (lines.isEmpty()) {
+            return results;
+        }
+        List<String> header = CsvUtil.parseLine(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int mode = header.indexOf("Mode");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> fields = CsvUtil.parseLine(line);
+            if (fields.size() < header.size()) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(fields.get(benchmark));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ")) {
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(fields.get(i));
+                }
+            }
+            boolean throughput = fields.get(mode).equals("thrpt");
+            results.put(key.toString(), new Result(Double.parseDouble(fields.get(score).replace(',', '.')),
+                    fields.get(unit), !throughput));
+        }
+        return results;
+    }
+
+    private static final class Result {
+        final double score;
+        final String unit;
+        final boolean timePerOperation;
+
+        Result(double score, String unit, boolean timePerOperation) {
+            this.score = score;
+            this.unit = unit;
+            this.timePerOperation = timePerOperation;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package Benchmarks;
+
+import DAO.CourseDAO;
+import DAO.EnrollmentService;
+import DAO.StudentDAO;
+import Models.Student;
+import Utils.StorageConfig;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Enroll followed by drop through EnrollmentService, so the data set stays the same
+ * size. The DAOs journal their mutations, as in the console application; the journals
+ * and the enrollment log are folded into the snapshots between iterations rather than
+ * during them, so an iteration measures the mutation path and not the occasional
+ * checkpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EnrollmentBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int records;
+
+    private StorageConfig config;
+    private StudentDAO studentDAO;
+    private CourseDAO courseDAO;
+    private EnrollmentService enrollmentService;
+    // Fixture courses holding at least one student, so a seat can always be given back first
+    private String[] courseIds;
+    // A fixture course with a free seat that each fixture student is not enrolled in
+    private String[] freeCourses;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        config = Fixtures.writeDataSet(records);
+        config.setJournalEnabled(true);
+        config.setCheckpointInterval(Integer.MAX_VALUE);
+        studentDAO = new StudentDAO(config);
+        courseDAO = new CourseDAO(config);
+        enrollmentService = new EnrollmentService(studentDAO, courseDAO, config);
+        int courses = Fixtures.courseCount(records);
+        List<String> occupied = new ArrayList<>();
+        for (int i = 0; i < courses; i++) {
+            if (courseDAO.findCourseById(Fixtures.courseId(i)).getCurrentEnrollment() > 0) {
+                occupied.add(Fixtures.courseId(i));
+            }
+        }
+        courseIds = occupied.toArray(new String[0]);
+        freeCourses = new String[records];
+        for (int i = 0; i < records; i++) {
+            Student student = studentDAO.findStudentById(Fixtures.studentId(i));
+            int course = i % courses;
+            while (student.isEnrolledInCourse(Fixtures.courseId(course))
+                    || !courseDAO.findCourseById(Fixtures.courseId(course)).hasAvailableSpots()) {
+                course = (course + 1) % courses;
+            }
+            freeCourses[i] = Fixtures.courseId(course);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkpoint() {
+        enrollmentService.checkpoint();
+        studentDAO.checkpoint();
+        courseDAO.checkpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        enrollmentService.close();
+        studentDAO.close();
+        courseDAO.close();
+        Fixtures.delete(config.getDataDirectory());
+    }
+
+    @Benchmark
+    public boolean enrollAndDropStudent() {
+        int student = next++ % records;
+        int studentId = Fixtures.studentId(student);
+        String courseId = freeCourses[student];
+        return enrollmentService.enroll(studentId, courseId) & enrollmentService.drop(studentId, courseId);
+    }
+
+    @Benchmark
+    public boolean takeAndReleaseSeat() {
+        // Only courses with a seat taken are listed, and a decrement needs a count above zero
+        String courseId = courseIds[next++ % courseIds.length];
+        return courseDAO.decrementEnrollment(courseId) & courseDAO.incrementEnrollment(courseId);
+    }
+}
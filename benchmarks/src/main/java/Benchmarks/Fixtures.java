@@ -0,0 +1,97 @@
+package Benchmarks;
+
+import Models.Course;
+import Models.Student;
+import Utils.CourseCodec;
+import Utils.FileUtil;
+import Utils.StorageConfig;
+import Utils.StudentCodec;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic data sets shared by the benchmarks: the same seed gives the same
+ * students and courses on every run, so results are comparable between commits.
+ */
+final class Fixtures {
+    static final int MAJORS = 40;
+    static final int COURSES_PER_STUDENT = 3;
+    static final int COURSE_CAPACITY = 100;
+
+    private Fixtures() {
+    }
+
+    static int courseCount(int students) {
+        return Math.max(50, students / 20);
+    }
+
+    static String courseId(int course) {
+        return "C" + (10000 + course);
+    }
+
+    static String email(int student) {
+        return "student" + student + "@university.edu";
+    }
+
+    static int studentId(int student) {
+        return 100000 + student;
+    }
+
+    static List<Course> courses(int students) {
+        int count = courseCount(students);
+        List<Course> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            courses.add(new Course(courseId(i), "Course " + i, 1 + i % 4, "Instructor " + i % 200, COURSE_CAPACITY));
+        }
+        return courses;
+    }
+
+    /**
+     * Students enrolled in COURSES_PER_STUDENT random courses each; the seat counts of
+     * courses are set to match
+     */
+    static List<Student> students(int count, List<Course> courses) {
+        Random random = new Random(42);
+        List<Student> students = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Student student = new Student("Student " + i, studentId(i), email(i), 17 + random.nextInt(10),
+                    "Major " + random.nextInt(MAJORS), random.nextInt(401) / 100.0);
+            for (int c = 0; c < COURSES_PER_STUDENT; c++) {
+                Course course = courses.get(random.nextInt(courses.size()));
+                if (course.getCurrentEnrollment() < course.getMaxCapacity()
+                        && student.enrollInCourse(course.getCourseId())) {
+                    course.incrementEnrollment();
+                }
+            }
+            students.add(student);
+        }
+        return students;
+    }
+
+    /**
+     * Writes a data set into a fresh temporary data directory and returns a config for it
+     */
+    static StorageConfig writeDataSet(int students) throws IOException {
+        Path directory = Files.createTempDirectory("sms-bench");
+        StorageConfig config = new StorageConfig();
+        config.setDataDirectory(directory.toString());
+        List<Course> courses = courses(students);
+        FileUtil.saveRecords(students(students, courses), config.resolve("students.dat"), StudentCodec.INSTANCE);
+        FileUtil.saveRecords(courses, config.resolve("courses.dat"), CourseCodec.INSTANCE);
+        return config;
+    }
+
+    static void delete(String directory) throws IOException {
+        try (Stream<Path> files = Files.walk(Path.of(directory))) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
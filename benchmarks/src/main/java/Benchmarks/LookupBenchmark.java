@@ -0,0 +1,103 @@
+package Benchmarks;
+
+import DAO.CourseDAO;
+import DAO.StudentDAO;
+import Models.Course;
+import Models.Student;
+import Utils.StorageConfig;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Point and key lookups: by ID, email, major and instructor. Keys cycle through a
+ * fixed pseudo-random sequence so every invocation misses the CPU cache alike.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+    private static final int KEYS = 4096;
+
+    @Param({"1000", "100000", "1000000"})
+    public int records;
+
+    private StorageConfig config;
+    private StudentDAO studentDAO;
+    private CourseDAO courseDAO;
+    private final int[] studentIds = new int[KEYS];
+    private final String[] emails = new String[KEYS];
+    private final String[] courseIds = new String[KEYS];
+    private final String[] majors = new String[KEYS];
+    private final String[] instructors = new String[KEYS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        config = Fixtures.writeDataSet(records);
+        studentDAO = new StudentDAO(config);
+        courseDAO = new CourseDAO(config);
+        java.util.Random random = new java.util.Random(7);
+        for (int i = 0; i < KEYS; i++) {
+            int student = random.nextInt(records);
+            studentIds[i] = Fixtures.studentId(student);
+            emails[i] = Fixtures.email(student);
+            courseIds[i] = Fixtures.courseId(random.nextInt(Fixtures.courseCount(records)));
+            majors[i] = "Major " + random.nextInt(Fixtures.MAJORS);
+            instructors[i] = "Instructor " + random.nextInt(200);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        studentDAO.close();
+        courseDAO.close();
+        Fixtures.delete(config.getDataDirectory());
+    }
+
+    private int nextKey() {
+        next = (next + 1) & (KEYS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Student findStudentById() {
+        return studentDAO.findStudentById(studentIds[nextKey()]);
+    }
+
+    @Benchmark
+    public Student findStudentByEmail() {
+        return studentDAO.findStudentByEmail(emails[nextKey()]);
+    }
+
+    @Benchmark
+    public List<Student> findStudentsByMajor() {
+        return studentDAO.findStudentsByMajor(majors[nextKey()]);
+    }
+
+    @Benchmark
+    public Course findCourseById() {
+        return courseDAO.findCourseById(courseIds[nextKey()]);
+    }
+
+    @Benchmark
+    public List<Course> findCoursesByInstructor() {
+        return courseDAO.findCoursesByInstructor(instructors[nextKey()]);
+    }
+}
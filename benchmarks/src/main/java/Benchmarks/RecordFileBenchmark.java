@@ -0,0 +1,81 @@
+package Benchmarks;
+
+import Models.Course;
+import Models.Student;
+import Utils.FileUtil;
+import Utils.StudentCodec;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Saving and loading the student file, in the record format the DAOs use and in the
+ * Java serialization format of FileUtil.saveToFile/loadFromFile it replaced
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordFileBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int records;
+
+    private Path directory;
+    private List<Student> students;
+    private String recordFile;
+    private String serializedFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("sms-bench");
+        List<Course> courses = Fixtures.courses(records);
+        students = Fixtures.students(records, courses);
+        recordFile = directory.resolve("students.dat").toString();
+        serializedFile = directory.resolve("students.ser").toString();
+        FileUtil.saveRecords(students, recordFile, StudentCodec.INSTANCE);
+        FileUtil.saveToFile(students, serializedFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Fixtures.delete(directory.toString());
+    }
+
+    @Benchmark
+    public void saveRecords() throws IOException {
+        FileUtil.saveRecords(students, recordFile, StudentCodec.INSTANCE);
+    }
+
+    @Benchmark
+    public List<Student> loadRecords() throws IOException, ClassNotFoundException {
+        return FileUtil.loadRecords(recordFile, StudentCodec.INSTANCE);
+    }
+
+    @Benchmark
+    public void saveToFile() throws IOException {
+        FileUtil.saveToFile(students, serializedFile);
+    }
+
+    @Benchmark
+    public List<Student> loadFromFile() throws IOException, ClassNotFoundException {
+        return FileUtil.loadFromFile(serializedFile);
+    }
+}
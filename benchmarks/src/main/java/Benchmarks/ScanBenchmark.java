@@ -0,0 +1,96 @@
+package Benchmarks;
+
+import DAO.CourseDAO;
+import DAO.StudentDAO;
+import Models.Course;
+import Models.MajorStats;
+import Models.Student;
+import Utils.StorageConfig;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Queries that visit many records: full scans, range queries and report listings
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int records;
+
+    private StorageConfig config;
+    private StudentDAO studentDAO;
+    private CourseDAO courseDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        config = Fixtures.writeDataSet(records);
+        studentDAO = new StudentDAO(config);
+        courseDAO = new CourseDAO(config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        studentDAO.close();
+        courseDAO.close();
+        Fixtures.delete(config.getDataDirectory());
+    }
+
+    @Benchmark
+    public long forEachStudentFiltered() {
+        return studentDAO.forEachStudent(student -> student.getGpa() >= 3.5, student -> { });
+    }
+
+    @Benchmark
+    public double sumGpaOfAllStudents() {
+        double sum = 0;
+        for (Student student : studentDAO.getAllStudents()) {
+            sum += student.getGpa();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<Student> studentsWithGpaAbove() {
+        return studentDAO.getStudentsWithGPAAbove(3.9);
+    }
+
+    @Benchmark
+    public List<Student> studentsByAgeRange() {
+        return studentDAO.getStudentsByAgeRange(20, 21);
+    }
+
+    @Benchmark
+    public List<MajorStats> majorStats() {
+        return studentDAO.getMajorStats();
+    }
+
+    @Benchmark
+    public List<Course> availableCourses() {
+        return courseDAO.getAvailableCourses();
+    }
+
+    @Benchmark
+    public List<Course> coursesSortedByEnrollment() {
+        return courseDAO.getCoursesSortedByEnrollment();
+    }
+}
@@ -0,0 +1,536 @@
+import DAO.CourseDAO;
+import DAO.EnrollmentService;
+import DAO.StudentDAO;
+import Models.Course;
+import Models.Student;
+import Utils.JsonUtil;
+import Utils.Metrics;
+import Utils.OperationTimer;
+import Utils.StorageConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JSON over HTTP for the student and course data, on the JDK's built-in server.
+ *
+ *   GET    /students/{id}                      GET    /courses/{id}
+ *   GET    /students?major=|name=|gpaAbove=|   GET    /courses[?available|full|popular=N|
+ *               course=|minAge=&maxAge=                    instructor=|name=]
+ *   POST   /students            (JSON body)    POST   /courses           (JSON body)
+ *   DELETE /students/{id}                      DELETE /courses/{id}
+ *   GET    /students/{id}/courses              GET    /courses/{id}/students
+ *   PUT    /students/{id}/courses/{courseId}   enroll
+ *   DELETE /students/{id}/courses/{courseId}   drop
+ *   GET    /metrics                            text report
+ *
+ * Each request runs on its own virtual thread when the JVM has them (Java 21+). At
+ * most `workers` requests touch the DAOs at a time; up to `queueCapacity` more wait for
+ * a turn, and anything beyond that is turned away at once with 503 and Retry-After
+ * instead of piling up. Without virtual threads, requests run on `workers` platform
+ * threads with a queue of `queueCapacity`; when it is full the accepting thread runs
+ * the request itself, so the server stops reading new requests until it catches up.
+ * Mutations are group committed: a response is sent once its change is durable, and
+ * concurrent writers share the journal sync.
+ *
+ * Usage: java StudentManagementSystem --serve [port] [--data DIR] [--workers N] [--queue N]
+ */
+public class ApiServer {
+    private static final int DEFAULT_PORT = 8080;
+    // Connections the OS may hold before the server accepts them
+    private static final int BACKLOG = 4096;
+    // Longest a queued request waits for a worker before it is turned away
+    private static final long QUEUE_TIMEOUT_MILLIS = 2000;
+    // Longest a mutation waits for its change to become durable
+    private static final long DURABLE_TIMEOUT_MILLIS = 5000;
+    private static final Metrics METRICS = Metrics.component("ApiServer");
+    private static final OperationTimer REQUEST = METRICS.timer("request", 16);
+
+    // Keep-alive connections left open between requests; the JDK default of 200 drops
+    // the rest, so thousands of clients would reconnect after every response
+    private static final int MAX_IDLE_CONNECTIONS = 20_000;
+
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+    private final EnrollmentService enrollmentService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore workers;
+    // Most requests admitted at once: every worker busy and the queue full
+    private final int maxAdmitted;
+    // Requests admitted and not yet finished: working plus waiting
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public ApiServer(StudentDAO studentDAO, CourseDAO courseDAO, EnrollmentService enrollmentService,
+                     InetSocketAddress address, int workers, int queueCapacity) throws IOException {
+        this.studentDAO = studentDAO;
+        this.courseDAO = courseDAO;
+        this.enrollmentService = enrollmentService;
+        this.workers = new Semaphore(workers);
+        this.maxAdmitted = workers + queueCapacity;
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newBoundedPool(workers, queueCapacity);
+        this.server = HttpServer.create(address, BACKLOG);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        int workerCount = Runtime.getRuntime().availableProcessors() * 2;
+        int queue = 10_000;
+        StorageConfig config = new StorageConfig();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--serve")) {
+                continue;
+            } else if (args[i].equals("--data") && i + 1 < args.length) {
+                config.setDataDirectory(args[++i]);
+            } else if (args[i].equals("--workers") && i + 1 < args.length) {
+                workerCount = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--queue") && i + 1 < args.length) {
+                queue = Integer.parseInt(args[++i]);
+            } else if (!args[i].startsWith("--")) {
+                port = Integer.parseInt(args[i]);
+            } else {
+                System.err.println("Usage: java StudentManagementSystem --serve [port] [--data DIR] [--workers N] [--queue N]");
+                System.exit(1);
+            }
+        }
+        config.setJournalEnabled(true);
+        config.setWriteBehindEnabled(true);
+        // Headers and body go out in separate writes; without this every keep-alive
+        // response waits out the client's delayed ACK (about 40 ms)
+        setDefault("sun.net.httpserver.nodelay", "true");
+        setDefault("sun.net.httpserver.maxIdleConnections", String.valueOf(MAX_IDLE_CONNECTIONS));
+
+        StudentDAO studentDAO = new StudentDAO(config);
+        CourseDAO courseDAO = new CourseDAO(config);
+        EnrollmentService enrollmentService = new EnrollmentService(studentDAO, courseDAO, config);
+        ApiServer api;
+        try {
+            api = new ApiServer(studentDAO, courseDAO, enrollmentService, new InetSocketAddress(port), workerCount, queue);
+        } catch (IOException e) {
+            System.err.println("Cannot listen on port " + port + ": " + e.getMessage());
+            enrollmentService.close();
+            studentDAO.close();
+            courseDAO.close();
+            System.exit(1);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop();
+            enrollmentService.close();
+            studentDAO.close();
+            courseDAO.close();
+        }));
+        api.start();
+        System.out.println("Serving on port " + api.getPort() + " with " + workerCount + " workers on "
+                + (api.virtualThreads ? "virtual" : "platform") + " threads, queue " + queue);
+    }
+
+    public void start() {
+        studentDAO.getTotalStudents();
+        courseDAO.getTotalCourses();
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, lets running ones finish for up to a second, then stops the threads
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Server settings are JVM-wide and read once, when the first server is created, so
+     * only the standalone server sets them; -D on the command line wins
+     */
+    private static void setDefault(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() when the JVM has it, else null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Platform threads: a full queue makes the accepting thread run the request itself,
+     * so the server stops accepting until it catches up
+     */
+    private static ExecutorService newBoundedPool(int threads, int queueCapacity) {
+        AtomicInteger created = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "api-worker-" + created.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = REQUEST.start();
+        try {
+            if (admitted.incrementAndGet() > maxAdmitted
+                    || !workers.tryAcquire(QUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                rejected.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, error("server busy"));
+                return;
+            }
+            Response response;
+            try {
+                response = route(exchange);
+            } finally {
+                workers.release();
+            }
+            respond(exchange, response.status, response.body);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            respond(exchange, 503, error("server stopping"));
+        } catch (RuntimeException e) {
+            System.err.println("Error handling " + exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                    + ": " + e);
+            respond(exchange, 500, error("internal error"));
+        } finally {
+            admitted.decrementAndGet();
+            exchange.close();
+            REQUEST.stop(start);
+        }
+    }
+
+    private Response route(HttpExchange exchange) throws IOException, InterruptedException {
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        switch (path[0]) {
+            case "students":
+                if (path.length == 1) {
+                    return method.equals("POST") ? addStudent(readBody(exchange))
+                            : method.equals("GET") ? students(studentQuery(query)) : notAllowed();
+                }
+                int studentId = parseInt(path[1], "student ID");
+                if (path.length == 2) {
+                    if (method.equals("GET")) {
+                        Student student = studentDAO.findStudentById(studentId);
+                        return student == null ? notFound("student") : new Response(200, student(student));
+                    }
+                    return method.equals("DELETE") ? deleted(enrollmentService.deleteStudent(studentId) && durable(studentDAO),
+                            "student") : notAllowed();
+                }
+                if (!path[2].equals("courses") || path.length > 4) {
+                    return notFound("resource");
+                }
+                if (path.length == 3) {
+                    return method.equals("GET") ? studentCourses(studentId) : notAllowed();
+                }
+                return enrollment(method, studentId, path[3]);
+            case "courses":
+                if (path.length == 1) {
+                    return method.equals("POST") ? addCourse(readBody(exchange))
+                            : method.equals("GET") ? courses(courseQuery(query)) : notAllowed();
+                }
+                if (path.length == 2) {
+                    if (method.equals("GET")) {
+                        Course course = courseDAO.findCourseById(path[1]);
+                        return course == null ? notFound("course") : new Response(200, course(course));
+                    }
+                    if (method.equals("DELETE")) {
+                        boolean deleted = enrollmentService.deleteCourse(path[1]);
+                        return deleted(deleted && durable(courseDAO), "course");
+                    }
+                    return notAllowed();
+                }
+                if (path.length == 3 && path[2].equals("students")) {
+                    if (!method.equals("GET")) {
+                        return notAllowed();
+                    }
+                    return courseDAO.courseExists(path[1])
+                            ? students(studentDAO.getStudentsEnrolledInCourse(path[1])) : notFound("course");
+                }
+                return notFound("resource");
+            case "metrics":
+                if (!method.equals("GET")) {
+                    return notAllowed();
+                }
+                return new Response(200, Metrics.report() + "ApiServer: " + rejected.get() + " requests rejected\n");
+            default:
+                return notFound("resource");
+        }
+    }
+
+    private List<Student> studentQuery(Map<String, String> query) {
+        if (query.containsKey("major")) {
+            return studentDAO.findStudentsByMajor(query.get("major"));
+        }
+        if (query.containsKey("name")) {
+            return studentDAO.findStudentsByName(query.get("name"));
+        }
+        if (query.containsKey("gpaAbove")) {
+            return studentDAO.getStudentsWithGPAAbove(parseDouble(query.get("gpaAbove"), "gpaAbove"));
+        }
+        if (query.containsKey("course")) {
+            return studentDAO.getStudentsEnrolledInCourse(query.get("course"));
+        }
+        if (query.containsKey("minAge") || query.containsKey("maxAge")) {
+            return studentDAO.getStudentsByAgeRange(parseInt(query.getOrDefault("minAge", "0"), "minAge"),
+                    parseInt(query.getOrDefault("maxAge", String.valueOf(Integer.MAX_VALUE)), "maxAge"));
+        }
+        throw new IllegalArgumentException("filter by major, name, gpaAbove, course or minAge/maxAge");
+    }
+
+    private List<Course> courseQuery(Map<String, String> query) {
+        if (query.containsKey("available")) {
+            return courseDAO.getAvailableCourses();
+        }
+        if (query.containsKey("full")) {
+            return courseDAO.getFullCourses();
+        }
+        if (query.containsKey("popular")) {
+            String limit = query.get("popular");
+            return courseDAO.getMostEnrolledCourses(limit.isEmpty() ? 10 : parseInt(limit, "popular"));
+        }
+        if (query.containsKey("instructor")) {
+            return courseDAO.findCoursesByInstructor(query.get("instructor"));
+        }
+        if (query.containsKey("name")) {
+            return courseDAO.findCoursesByName(query.get("name"));
+        }
+        return courseDAO.getAllCourses();
+    }
+
+    private Response addStudent(String body) throws InterruptedException {
+        Map<String, String> fields = JsonUtil.parseObject(body);
+        Student student = new Student(required(fields, "name"), parseInt(required(fields, "id"), "id"),
+                required(fields, "email"), parseInt(required(fields, "age"), "age"), fields.get("major"),
+                parseDouble(required(fields, "gpa"), "gpa"));
+        if (!studentDAO.addStudent(student)) {
+            return new Response(409, error("a student with this ID or email already exists"));
+        }
+        return durable(studentDAO) ? new Response(201, student(student)) : notDurable();
+    }
+
+    private Response addCourse(String body) throws InterruptedException {
+        Map<String, String> fields = JsonUtil.parseObject(body);
+        Course course = new Course(required(fields, "courseId"), required(fields, "courseName"),
+                parseInt(required(fields, "credits"), "credits"), fields.get("instructor"),
+                parseInt(required(fields, "maxCapacity"), "maxCapacity"));
+        if (!courseDAO.addCourse(course)) {
+            return new Response(409, error("a course with this ID already exists"));
+        }
+        return durable(courseDAO) ? new Response(201, course(course)) : notDurable();
+    }
+
+    private Response studentCourses(int studentId) {
+        Student student = studentDAO.findStudentById(studentId);
+        if (student == null) {
+            return notFound("student");
+        }
+        StringBuilder body = new StringBuilder(256).append('[');
+        student.forEachEnrolledCourse(courseId -> {
+            Course course = courseDAO.findCourseById(courseId);
+            if (course != null) {
+                if (body.length() > 1) {
+                    body.append(',');
+                }
+                JsonUtil.appendCourse(body, course);
+            }
+        });
+        return new Response(200, body.append(']').toString());
+    }
+
+    private Response enrollment(String method, int studentId, String courseId) throws InterruptedException {
+        boolean enroll = method.equals("PUT");
+        if (!enroll && !method.equals("DELETE")) {
+            return notAllowed();
+        }
+        if (!studentDAO.studentExists(studentId)) {
+            return notFound("student");
+        }
+        if (!courseDAO.courseExists(courseId)) {
+            return notFound("course");
+        }
+        if (enroll ? !enrollmentService.enroll(studentId, courseId) : !enrollmentService.drop(studentId, courseId)) {
+            return new Response(409, error(enroll ? "already enrolled or the course is full" : "not enrolled"));
+        }
+        if (!enrollmentService.awaitDurable(DURABLE_TIMEOUT_MILLIS)) {
+            return notDurable();
+        }
+        return new Response(200, course(courseDAO.findCourseById(courseId)));
+    }
+
+    private static boolean durable(StudentDAO dao) throws InterruptedException {
+        return dao.awaitDurable(DURABLE_TIMEOUT_MILLIS);
+    }
+
+    private static boolean durable(CourseDAO dao) throws InterruptedException {
+        return dao.awaitDurable(DURABLE_TIMEOUT_MILLIS);
+    }
+
+    private static Response deleted(boolean deleted, String what) {
+        return deleted ? new Response(204, null) : notFound(what);
+    }
+
+    private static Response notFound(String what) {
+        return new Response(404, error(what + " not found"));
+    }
+
+    private static Response notAllowed() {
+        return new Response(405, error("method not allowed"));
+    }
+
+    private static Response notDurable() {
+        return new Response(500, error("change applied but not yet durable"));
+    }
+
+    private static String student(Student student) {
+        StringBuilder body = new StringBuilder(256);
+        JsonUtil.appendStudent(body, student);
+        return body.toString();
+    }
+
+    private static String course(Course course) {
+        StringBuilder body = new StringBuilder(192);
+        JsonUtil.appendCourse(body, course);
+        return body.toString();
+    }
+
+    private static Response students(List<Student> students) {
+        StringBuilder body = new StringBuilder(64 + students.size() * 160).append('[');
+        for (Student student : students) {
+            if (body.length() > 1) {
+                body.append(',');
+            }
+            JsonUtil.appendStudent(body, student);
+        }
+        return new Response(200, body.append(']').toString());
+    }
+
+    private static Response courses(List<Course> courses) {
+        StringBuilder body = new StringBuilder(64 + courses.size() * 128).append('[');
+        for (Course course : courses) {
+            if (body.length() > 1) {
+                body.append(',');
+            }
+            JsonUtil.appendCourse(body, course);
+        }
+        return new Response(200, body.append(']').toString());
+    }
+
+    private static String error(String message) {
+        StringBuilder body = new StringBuilder("{\"error\":");
+        JsonUtil.appendString(body, message);
+        return body.append('}').toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type",
+                body.startsWith("{") || body.startsWith("[") ? "application/json" : "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("missing field " + name);
+        }
+        return value;
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a whole number: " + value);
+        }
+    }
+
+    private static double parseDouble(String value, String name) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
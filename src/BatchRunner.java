@@ -0,0 +1,425 @@
+import DAO.CourseDAO;
+import DAO.EnrollmentService;
+import DAO.StudentDAO;
+import Models.Course;
+import Models.Student;
+import Utils.CsvUtil;
+import Utils.Metrics;
+import Utils.StorageConfig;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs a script of commands against the DAOs without the menu, one command per line:
+ *
+ *   add-student ID "NAME" EMAIL AGE "MAJOR" GPA
+ *   add-course ID "NAME" CREDITS "INSTRUCTOR" CAPACITY
+ *   delete-student ID | delete-course ID
+ *   enroll STUDENT_ID COURSE_ID | drop STUDENT_ID COURSE_ID
+ *   find-student ID | find-course ID
+ *   query students-by-major "MAJOR" | query gpa-above X | query roster COURSE_ID
+ *   query available-courses | query popular [N] | query search-students "TEXT"
+ *   metrics
+ *
+ * Arguments are separated by spaces; quote those containing spaces. Blank lines and
+ * lines starting with # are skipped.
+ *
+ * Commands run in script order. Runs of add-student or add-course lines are applied
+ * as one import per chunk under a single lock acquisition. Nothing is written to disk
+ * while the script runs (unless it runs for longer than the flush window); everything
+ * is persisted once at the end, so a script is durable when it completes. Output is
+ * buffered: query results as CSV rows, one line per failed command, and a throughput
+ * summary on lines starting with #.
+ *
+ * Usage: java StudentManagementSystem --batch [script|-] [--data DIR] [--quiet]
+ *   Reads the script from stdin when it is omitted or -. --quiet prints only failures
+ *   and the summary.
+ */
+public class BatchRunner {
+    // Adds applied per import call
+    private static final int IMPORT_CHUNK = 1024;
+    // Longest time mutations stay in memory before a write
+    private static final long FLUSH_WINDOW_MILLIS = 60 * 60 * 1000;
+    // Pending mutations that force a write, bounding the memory used by pending journal entries
+    private static final int FLUSH_MAX_MUTATIONS = 100_000;
+
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+    private final EnrollmentService enrollmentService;
+    private final Writer out;
+    private final boolean quiet;
+    private final StringBuilder line = new StringBuilder(256);
+    private final List<Student> pendingStudents = new ArrayList<>();
+    private final List<Course> pendingCourses = new ArrayList<>();
+    private final List<Integer> pendingLines = new ArrayList<>();
+    // Command name -> number run, for the summary
+    private final Map<String, Integer> commandCounts = new TreeMap<>();
+    private long commands;
+    private long failures;
+    private long elapsedNanos;
+
+    public BatchRunner(StudentDAO studentDAO, CourseDAO courseDAO, EnrollmentService enrollmentService,
+                       Writer out, boolean quiet) {
+        this.studentDAO = studentDAO;
+        this.courseDAO = courseDAO;
+        this.enrollmentService = enrollmentService;
+        this.out = out;
+        this.quiet = quiet;
+    }
+
+    public static void main(String[] args) {
+        String script = "-";
+        boolean quiet = false;
+        StorageConfig config = new StorageConfig();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--batch")) {
+                continue;
+            } else if (args[i].equals("--quiet")) {
+                quiet = true;
+            } else if (args[i].equals("--data") && i + 1 < args.length) {
+                config.setDataDirectory(args[++i]);
+            } else if (args[i].startsWith("--")) {
+                System.err.println("Usage: java StudentManagementSystem --batch [script|-] [--data DIR] [--quiet]");
+                System.exit(1);
+            } else {
+                script = args[i];
+            }
+        }
+        // Journal, but group every mutation of the script into one write at the end. A
+        // console opened without the journal folds in whatever a crashed run left behind
+        config.setJournalEnabled(true);
+        config.setWriteBehindEnabled(true);
+        config.setFlushWindowMillis(FLUSH_WINDOW_MILLIS);
+        config.setFlushMaxMutations(FLUSH_MAX_MUTATIONS);
+
+        StudentDAO studentDAO = new StudentDAO(config);
+        CourseDAO courseDAO = new CourseDAO(config);
+        EnrollmentService enrollmentService = new EnrollmentService(studentDAO, courseDAO, config);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        BatchRunner runner = new BatchRunner(studentDAO, courseDAO, enrollmentService, out, quiet);
+        boolean ok;
+        try (Reader in = script.equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)) {
+            ok = runner.run(in);
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            ok = false;
+        }
+        // The one write of the batch: closing folds the logs into fresh snapshots
+        long start = System.nanoTime();
+        enrollmentService.close();
+        studentDAO.close();
+        courseDAO.close();
+        try {
+            runner.summarize(System.nanoTime() - start);
+        } catch (IOException e) {
+            System.err.println("Error writing batch summary: " + e.getMessage());
+        }
+        System.exit(ok ? 0 : 2);
+    }
+
+    /**
+     * Runs every command of the script; returns false if any command failed. Changes are
+     * persisted when the DAOs are closed.
+     */
+    public boolean run(Reader script) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = script instanceof BufferedReader ? (BufferedReader) script : new BufferedReader(script, 1 << 16);
+        String text;
+        int number = 0;
+        while ((text = reader.readLine()) != null) {
+            number++;
+            String trimmed = text.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            try {
+                execute(tokenize(trimmed), number);
+            } catch (IllegalArgumentException e) {
+                fail(number, e.getMessage());
+            }
+        }
+        flushPendingAdds();
+        elapsedNanos = System.nanoTime() - start;
+        out.flush();
+        return failures == 0;
+    }
+
+    private void execute(List<String> args, int number) throws IOException {
+        String command = args.get(0);
+        if (!command.equals("add-student") && !command.equals("add-course")) {
+            flushPendingAdds();
+        }
+        commands++;
+        commandCounts.merge(command, 1, Integer::sum);
+        switch (command) {
+            case "add-student":
+                expect(args, 7);
+                if (!pendingCourses.isEmpty()) {
+                    flushPendingAdds();
+                }
+                pendingStudents.add(new Student(args.get(2), parseInt(args.get(1)), args.get(3),
+                        parseInt(args.get(4)), args.get(5), parseDouble(args.get(6))));
+                pendingLines.add(number);
+                if (pendingStudents.size() >= IMPORT_CHUNK) {
+                    flushPendingAdds();
+                }
+                break;
+            case "add-course":
+                expect(args, 6);
+                if (!pendingStudents.isEmpty()) {
+                    flushPendingAdds();
+                }
+                pendingCourses.add(new Course(args.get(1), args.get(2), parseInt(args.get(3)), args.get(4),
+                        parseInt(args.get(5))));
+                pendingLines.add(number);
+                if (pendingCourses.size() >= IMPORT_CHUNK) {
+                    flushPendingAdds();
+                }
+                break;
+            case "delete-student":
+                expect(args, 2);
+                check(enrollmentService.deleteStudent(parseInt(args.get(1))), number, "no student " + args.get(1));
+                break;
+            case "delete-course":
+                expect(args, 2);
+                check(enrollmentService.deleteCourse(args.get(1)), number, "no course " + args.get(1));
+                break;
+            case "enroll":
+                expect(args, 3);
+                check(enrollmentService.enroll(parseInt(args.get(1)), args.get(2)), number,
+                        "cannot enroll " + args.get(1) + " in " + args.get(2));
+                break;
+            case "drop":
+                expect(args, 3);
+                check(enrollmentService.drop(parseInt(args.get(1)), args.get(2)), number,
+                        "cannot drop " + args.get(1) + " from " + args.get(2));
+                break;
+            case "find-student":
+                expect(args, 2);
+                Student student = studentDAO.findStudentById(parseInt(args.get(1)));
+                if (check(student != null, number, "no student " + args.get(1))) {
+                    printStudents(List.of(student), number);
+                }
+                break;
+            case "find-course":
+                expect(args, 2);
+                Course course = courseDAO.findCourseById(args.get(1));
+                if (check(course != null, number, "no course " + args.get(1))) {
+                    printCourses(List.of(course), number);
+                }
+                break;
+            case "query":
+                query(args, number);
+                break;
+            case "metrics":
+                if (!quiet) {
+                    out.write(Metrics.report());
+                }
+                break;
+            default:
+                commands--;
+                commandCounts.remove(command);
+                throw new IllegalArgumentException("unknown command " + command);
+        }
+    }
+
+    private void query(List<String> args, int number) throws IOException {
+        if (args.size() < 2) {
+            throw new IllegalArgumentException("query needs a name");
+        }
+        switch (args.get(1)) {
+            case "students-by-major":
+                expect(args, 3);
+                printStudents(studentDAO.findStudentsByMajor(args.get(2)), number);
+                break;
+            case "gpa-above":
+                expect(args, 3);
+                printStudents(studentDAO.getStudentsWithGPAAbove(parseDouble(args.get(2))), number);
+                break;
+            case "roster":
+                expect(args, 3);
+                printStudents(studentDAO.getStudentsEnrolledInCourse(args.get(2)), number);
+                break;
+            case "search-students":
+                expect(args, 3);
+                printStudents(studentDAO.findStudentsByName(args.get(2)), number);
+                break;
+            case "available-courses":
+                expect(args, 2);
+                printCourses(courseDAO.getAvailableCourses(), number);
+                break;
+            case "popular":
+                printCourses(courseDAO.getMostEnrolledCourses(args.size() > 2 ? parseInt(args.get(2)) : 10), number);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown query " + args.get(1));
+        }
+    }
+
+    /**
+     * Applies the queued adds as one import and reports the rejected ones
+     */
+    private void flushPendingAdds() throws IOException {
+        if (pendingLines.isEmpty()) {
+            return;
+        }
+        String[] rejects = pendingStudents.isEmpty()
+                ? courseDAO.importCourses(pendingCourses)
+                : studentDAO.importStudents(pendingStudents);
+        for (int i = 0; i < rejects.length; i++) {
+            if (rejects[i] != null) {
+                fail(pendingLines.get(i), rejects[i]);
+            }
+        }
+        pendingStudents.clear();
+        pendingCourses.clear();
+        pendingLines.clear();
+    }
+
+    private boolean check(boolean succeeded, int number, String reason) throws IOException {
+        if (!succeeded) {
+            fail(number, reason);
+        }
+        return succeeded;
+    }
+
+    private void fail(int number, String reason) throws IOException {
+        failures++;
+        line.setLength(0);
+        line.append("# line ").append(number).append(" failed: ").append(reason).append('\n');
+        out.append(line);
+    }
+
+    private void printStudents(List<Student> students, int number) throws IOException {
+        if (quiet) {
+            return;
+        }
+        header(students.size(), number);
+        for (Student student : students) {
+            line.setLength(0);
+            line.append(student.getId()).append(',');
+            CsvUtil.appendField(line, student.getName());
+            line.append(',');
+            CsvUtil.appendField(line, student.getEmail());
+            line.append(',').append(student.getAge()).append(',');
+            CsvUtil.appendField(line, student.getMajor());
+            line.append(',').append(student.getGpa()).append('\n');
+            out.append(line);
+        }
+    }
+
+    private void printCourses(List<Course> courses, int number) throws IOException {
+        if (quiet) {
+            return;
+        }
+        header(courses.size(), number);
+        for (Course course : courses) {
+            line.setLength(0);
+            CsvUtil.appendField(line, course.getCourseId());
+            line.append(',');
+            CsvUtil.appendField(line, course.getCourseName());
+            line.append(',').append(course.getCredits()).append(',');
+            CsvUtil.appendField(line, course.getInstructor());
+            line.append(',').append(course.getCurrentEnrollment()).append('/').append(course.getMaxCapacity()).append('\n');
+            out.append(line);
+        }
+    }
+
+    private void header(int results, int number) throws IOException {
+        line.setLength(0);
+        line.append("# line ").append(number).append(": ").append(results).append(" results\n");
+        out.append(line);
+    }
+
+    /**
+     * Writes the throughput summary; persistNanos is the time the final write took
+     */
+    public void summarize(long persistNanos) throws IOException {
+        double seconds = elapsedNanos / 1e9;
+        out.write(String.format("# %,d commands in %.3f s (%,.0f commands/s), %,d failed%n",
+                commands, seconds, seconds > 0 ? commands / seconds : 0.0, failures));
+        for (Map.Entry<String, Integer> entry : commandCounts.entrySet()) {
+            out.write(String.format("#   %-16s %,d%n", entry.getKey(), entry.getValue()));
+        }
+        out.write(String.format("# persisted in %.3f s%n", persistNanos / 1e9));
+        out.flush();
+    }
+
+    /**
+     * Splits a command line at spaces; double quotes group words, "" inside quotes is a quote
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    token.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quote");
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static void expect(List<String> args, int count) {
+        if (args.size() != count) {
+            throw new IllegalArgumentException(args.get(0) + " takes " + (count - 1) + " arguments, got " + (args.size() - 1));
+        }
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + value);
+        }
+    }
+
+    private static double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + value);
+        }
+    }
+}
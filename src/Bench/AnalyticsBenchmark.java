@@ -0,0 +1,82 @@
+package Bench;
+
+import DAO.StudentAnalytics;
+import Models.Student;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures StudentAnalytics scaling: the same analysis on pools of 1 to N workers,
+ * reported as time per run and speedup over one worker. Every run is checked against
+ * the single worker result.
+ *
+ * Usage: java Bench.AnalyticsBenchmark [student count] [max workers]
+ */
+public class AnalyticsBenchmark {
+    private static final int RUNS = 10;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int maxWorkers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Generating " + count + " students ...");
+        List<Student> students = new ArrayList<>(count);
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            Student student = new Student("Student " + i, 100000 + i, "student" + i + "@university.edu",
+                    17 + random.nextInt(10), "Major " + random.nextInt(40), random.nextInt(401) / 100.0);
+            int load = random.nextInt(7);
+            for (int c = 0; c < load; c++) {
+                student.enrollInCourse("CS" + (100 + random.nextInt(50)));
+            }
+            students.add(student);
+        }
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors available");
+
+        StudentAnalytics.TermReport expected = null;
+        double baseline = 0;
+        for (int workers = 1; workers <= maxWorkers; workers++) {
+            StudentAnalytics analytics = new StudentAnalytics(workers);
+            // Warm up, then time
+            StudentAnalytics.TermReport report = null;
+            for (int i = 0; i < 3; i++) {
+                report = analytics.analyze(students);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                report = analytics.analyze(students);
+            }
+            double millis = (System.nanoTime() - start) / 1e6 / RUNS;
+            analytics.close();
+
+            if (expected == null) {
+                expected = report;
+                baseline = millis;
+            } else {
+                check(expected, report);
+            }
+            System.out.printf("%2d workers: %8.2f ms per run, speedup %5.2fx%n", workers, millis, baseline / millis);
+        }
+
+        String major = expected.getMajors().get(0);
+        System.out.printf("%s: %d students, average GPA %.2f, histogram %s%n", major,
+                expected.getStudentCount(major), expected.getAverageGpa(major),
+                Arrays.toString(expected.getGpaHistogram(major)));
+        System.out.printf("Aged 18-21: %d; course load p50 %d, p90 %d, p99 %d%n", expected.countAged(18, 21),
+                expected.getLoadPercentile(50), expected.getLoadPercentile(90), expected.getLoadPercentile(99));
+    }
+
+    private static void check(StudentAnalytics.TermReport expected, StudentAnalytics.TermReport actual) {
+        boolean same = expected.getTotalStudents() == actual.getTotalStudents()
+                && Arrays.equals(expected.getAgeCohorts(), actual.getAgeCohorts())
+                && expected.getLoadPercentile(90) == actual.getLoadPercentile(90);
+        for (String major : expected.getMajors()) {
+            same &= Arrays.equals(expected.getGpaHistogram(major), actual.getGpaHistogram(major));
+        }
+        if (!same) {
+            throw new IllegalStateException("Parallel result differs from single worker result");
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package Bench;
+
+import DAO.AsyncDAO;
+import DAO.CourseDAO;
+import DAO.EnrollmentService;
+import DAO.StudentDAO;
+import Models.Course;
+import Models.Student;
+import Utils.StorageConfig;
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Durable writes per second: a pool of threads each blocking on StudentDAO.addStudent
+ * plus EnrollmentService.enroll and waiting for each to be durable, against one thread keeping thousands of the same
+ * writes in flight through AsyncDAO. Also shows the bounded queue pushing back: the
+ * async run submits without waiting and retries whatever is rejected.
+ *
+ * Usage: java Bench.AsyncWriteBenchmark [students] [blocking threads] [in flight] [data directory]
+ */
+public class AsyncWriteBenchmark {
+    private static final int COURSES = 50;
+    private static final long DURABLE_TIMEOUT_MILLIS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int inFlight = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+        String dataDirectory = args.length > 3 ? args[3] : "bench-data/async";
+
+        for (int round = 1; round <= 2; round++) {
+            report("blocking, " + threads + " threads", round, students, blocking(dataDirectory, students, threads));
+            report("async, " + inFlight + " in flight", round, students, async(dataDirectory, students, inFlight));
+        }
+    }
+
+    private static void report(String label, int round, int students, long nanos) {
+        System.out.printf("%-28s round %d: %,8.0f durable writes/s%n", label, round, 2.0 * students / (nanos / 1e9));
+    }
+
+    /**
+     * Each thread writes its share and waits for every write to be durable
+     */
+    private static long blocking(String dataDirectory, int students, int threads) throws InterruptedException {
+        clear(dataDirectory);
+        StorageConfig config = config(dataDirectory);
+        StudentDAO studentDAO = new StudentDAO(config);
+        CourseDAO courseDAO = new CourseDAO(config);
+        EnrollmentService enrollmentService = new EnrollmentService(studentDAO, courseDAO, config);
+        addCourses(courseDAO, students);
+
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    for (int i = next.getAndIncrement(); i < students; i = next.getAndIncrement()) {
+                        if (!studentDAO.addStudent(student(i)) || !studentDAO.awaitDurable(DURABLE_TIMEOUT_MILLIS)
+                                || !enrollmentService.enroll(i, courseOf(i))
+                                || !enrollmentService.awaitDurable(DURABLE_TIMEOUT_MILLIS)) {
+                            throw new IllegalStateException("Write " + i + " failed");
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        check(studentDAO, students);
+        close(enrollmentService, studentDAO, courseDAO);
+        return elapsed;
+    }
+
+    /**
+     * One thread submits everything; the run ends when the last future completes
+     */
+    private static long async(String dataDirectory, int students, int inFlight) throws InterruptedException {
+        clear(dataDirectory);
+        StorageConfig config = config(dataDirectory);
+        StudentDAO studentDAO = new StudentDAO(config);
+        CourseDAO courseDAO = new CourseDAO(config);
+        EnrollmentService enrollmentService = new EnrollmentService(studentDAO, courseDAO, config);
+        addCourses(courseDAO, students);
+        // A queue smaller than the in-flight limit, so rejections and retries happen
+        AsyncDAO async = new AsyncDAO(studentDAO, courseDAO, enrollmentService, Math.max(1, inFlight / 4));
+
+        Semaphore permits = new Semaphore(inFlight);
+        AtomicLong failures = new AtomicLong();
+        long rejected = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < students; i++) {
+            int id = i;
+            // Writes apply in submission order, so the enroll always finds its student
+            rejected += submit(permits, failures, () -> async.addStudent(student(id)));
+            rejected += submit(permits, failures, () -> async.enroll(id, courseOf(id)));
+        }
+        permits.acquire(inFlight);
+        long elapsed = System.nanoTime() - start;
+        async.close();
+        if (failures.get() > 0) {
+            throw new IllegalStateException(failures.get() + " async writes failed");
+        }
+        System.out.printf("  (%,d submissions rejected by the full queue and retried)%n", rejected);
+        check(studentDAO, students);
+        close(enrollmentService, studentDAO, courseDAO);
+        return elapsed;
+    }
+
+    /**
+     * Submits a write once a permit is free, retrying while the queue rejects it;
+     * returns the number of rejections
+     */
+    private static long submit(Semaphore permits, AtomicLong failures,
+                               Supplier<CompletableFuture<Boolean>> write) throws InterruptedException {
+        permits.acquire();
+        long rejected = 0;
+        CompletableFuture<Boolean> future;
+        while ((future = write.get()).isCompletedExceptionally() && rejected(future)) {
+            rejected++;
+            Thread.yield();
+        }
+        future.whenComplete((ok, error) -> {
+            if (error != null || !ok) {
+                failures.incrementAndGet();
+            }
+            permits.release();
+        });
+        return rejected;
+    }
+
+    private static boolean rejected(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return false;
+        } catch (RuntimeException e) {
+            return e.getCause() instanceof RejectedExecutionException;
+        }
+    }
+
+    private static StorageConfig config(String dataDirectory) {
+        StorageConfig config = new StorageConfig();
+        config.setDataDirectory(dataDirectory);
+        config.setJournalEnabled(true);
+        config.setCheckpointInterval(Integer.MAX_VALUE);
+        config.setWriteBehindEnabled(true);
+        return config;
+    }
+
+    private static void addCourses(CourseDAO courseDAO, int students) {
+        for (int c = 0; c < COURSES; c++) {
+            courseDAO.addCourse(new Course("ASYNC" + c, "Async Course " + c, 3, "Dr. Queue", students));
+        }
+    }
+
+    private static Student student(int i) {
+        return new Student("Student " + i, i, "student" + i + "@university.edu", 18 + i % 10, "Major " + i % 20,
+                (i % 400) / 100.0);
+    }
+
+    private static String courseOf(int i) {
+        return "ASYNC" + (i % COURSES);
+    }
+
+    private static void check(StudentDAO studentDAO, int students) {
+        if (studentDAO.getTotalStudents() != students) {
+            throw new IllegalStateException("Expected " + students + " students, found " + studentDAO.getTotalStudents());
+        }
+    }
+
+    private static void close(EnrollmentService enrollmentService, StudentDAO studentDAO, CourseDAO courseDAO) {
+        enrollmentService.close();
+        studentDAO.close();
+        courseDAO.close();
+    }
+
+    private static void clear(String dataDirectory) {
+        new File(dataDirectory).mkdirs();
+        for (String name : new String[] {"students.dat", "courses.dat", "students.journal", "courses.journal",
+                "enrollments.journal"}) {
+            new File(dataDirectory, name).delete();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package Bench;
+
+import DAO.CourseDAO;
+import DAO.StudentDAO;
+import Models.Course;
+import Models.Student;
+import Utils.FileUtil;
+import Utils.StorageConfig;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hammers the DAOs from many threads and checks that no update was lost:
+ * every add is visible, seat counts match the successful increments and never
+ * exceed capacity, rosters agree with student course lists while readers keep
+ * scanning snapshots, and all of it survives a close and reopen.
+ * Also prints enrollment throughput for 1..N threads.
+ *
+ * Usage: java Bench.ConcurrencyStress [threads] [data directory]
+ */
+public class ConcurrencyStress {
+    private static final int STUDENTS_PER_THREAD = 2_000;
+    private static final int COURSES = 200;
+    private static final int COURSE_CAPACITY = 150;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        String dataDirectory = args.length > 1 ? args[1] : "bench-data/stress";
+        clear(dataDirectory);
+        StorageConfig config = new StorageConfig();
+        config.setDataDirectory(dataDirectory);
+        config.setJournalEnabled(true);
+
+        StudentDAO studentDAO = new StudentDAO(config);
+        CourseDAO courseDAO = new CourseDAO(config);
+        for (int c = 0; c < COURSES; c++) {
+            courseDAO.addCourse(new Course(courseId(c), "Course " + c, 3, "Instructor " + c % 17, COURSE_CAPACITY));
+        }
+
+        // 1. Concurrent adds with disjoint IDs
+        runThreads(threads, t -> {
+            for (int i = 0; i < STUDENTS_PER_THREAD; i++) {
+                int id = studentId(t, i);
+                check(studentDAO.addStudent(new Student("Student " + id, id, "s" + id + "@university.edu",
+                        18 + i % 10, "Major " + i % 12, (i % 401) / 100.0)), "add " + id);
+            }
+        });
+        check(studentDAO.getTotalStudents() == threads * STUDENTS_PER_THREAD, "student count after adds");
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < STUDENTS_PER_THREAD; i++) {
+                check(studentDAO.findStudentByEmail("s" + studentId(t, i) + "@university.edu") != null, "email index");
+            }
+        }
+
+        // 2. Enroll/drop across threads while readers scan snapshots
+        AtomicInteger[] seats = new AtomicInteger[COURSES];
+        for (int c = 0; c < COURSES; c++) {
+            seats[c] = new AtomicInteger();
+        }
+        AtomicBoolean writersDone = new AtomicBoolean();
+        AtomicLong snapshotReads = new AtomicLong();
+        Thread[] readers = new Thread[2];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                while (!writersDone.get()) {
+                    check(studentDAO.getAllStudents().size() == threads * STUDENTS_PER_THREAD, "snapshot size");
+                    for (Course course : courseDAO.getAvailableCourses()) {
+                        check(course.getCurrentEnrollment() <= course.getMaxCapacity(), "capacity in snapshot");
+                    }
+                    courseDAO.getCoursesSortedByEnrollment();
+                    snapshotReads.incrementAndGet();
+                }
+            });
+            readers[r].start();
+        }
+        long start = System.nanoTime();
+        runThreads(threads, t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                int id = studentId(t, random.nextInt(STUDENTS_PER_THREAD));
+                int c = random.nextInt(COURSES);
+                // Each student belongs to one thread, so student and seat changes pair up exactly
+                if (random.nextInt(3) > 0) {
+                    if (courseDAO.incrementEnrollment(courseId(c))) {
+                        if (studentDAO.enrollStudentInCourse(id, courseId(c))) {
+                            seats[c].incrementAndGet();
+                        } else {
+                            courseDAO.decrementEnrollment(courseId(c));
+                        }
+                    }
+                } else if (studentDAO.dropStudentFromCourse(id, courseId(c))) {
+                    check(courseDAO.decrementEnrollment(courseId(c)), "decrement after drop");
+                    seats[c].decrementAndGet();
+                }
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        writersDone.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        System.out.printf("enroll/drop: %d threads, %.0f ops/s, %d snapshot scans alongside%n",
+                threads, threads * (double) OPERATIONS_PER_THREAD / (elapsed / 1e9), snapshotReads.get());
+        verify(studentDAO, courseDAO, seats);
+
+        // 3. Everything must come back after a close and reopen
+        studentDAO.close();
+        courseDAO.close();
+        StudentDAO reopenedStudents = new StudentDAO(config);
+        CourseDAO reopenedCourses = new CourseDAO(config);
+        check(reopenedStudents.getTotalStudents() == threads * STUDENTS_PER_THREAD, "student count after reopen");
+        verify(reopenedStudents, reopenedCourses, seats);
+        reopenedStudents.close();
+        reopenedCourses.close();
+
+        // 4. Seat increments on one hot course and on all courses, 1..N threads
+        for (int n = 1; n <= threads; n *= 2) {
+            reportIncrements(dataDirectory, n, true);
+            reportIncrements(dataDirectory, n, false);
+        }
+        System.out.println("OK: no lost updates");
+    }
+
+    private static void verify(StudentDAO studentDAO, CourseDAO courseDAO, AtomicInteger[] seats) {
+        int[] enrolled = new int[COURSES];
+        for (Student student : studentDAO.getAllStudents()) {
+            student.forEachEnrolledCourse(courseId -> enrolled[Integer.parseInt(courseId.substring(2))]++);
+        }
+        for (int c = 0; c < COURSES; c++) {
+            Course course = courseDAO.findCourseById(courseId(c));
+            check(course.getCurrentEnrollment() == seats[c].get(), "seat count of " + courseId(c));
+            check(course.getCurrentEnrollment() <= COURSE_CAPACITY, "capacity of " + courseId(c));
+            check(studentDAO.getEnrollmentCount(courseId(c)) == enrolled[c], "roster of " + courseId(c));
+            check(enrolled[c] == seats[c].get(), "student course lists for " + courseId(c));
+        }
+    }
+
+    private static void reportIncrements(String dataDirectory, int threads, boolean hotCourse) throws Exception {
+        String directory = dataDirectory + "/increments";
+        clear(directory);
+        StorageConfig config = new StorageConfig();
+        config.setDataDirectory(directory);
+        config.setJournalEnabled(true);
+        config.setWriteBehindEnabled(true);
+        CourseDAO courseDAO = new CourseDAO(config);
+        int courses = hotCourse ? 1 : 5_000;
+        int attemptsPerThread = 50_000;
+        for (int c = 0; c < courses; c++) {
+            courseDAO.addCourse(new Course(courseId(c), "Course " + c, 3, "Instructor", Integer.MAX_VALUE));
+        }
+        courseDAO.flush();
+
+        long start = System.nanoTime();
+        runThreads(threads, t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < attemptsPerThread; i++) {
+                check(courseDAO.incrementEnrollment(courseId(random.nextInt(courses))), "increment");
+            }
+        });
+        long elapsed = System.nanoTime() - start;
+        long total = 0;
+        for (Course course : courseDAO.getAllCourses()) {
+            total += course.getCurrentEnrollment();
+        }
+        check(total == (long) threads * attemptsPerThread, "increments on " + courses + " courses");
+        System.out.printf("increments: %2d threads, %-12s %,12.0f ops/s%n", threads,
+                hotCourse ? "hot course" : courses + " courses", total / (elapsed / 1e9));
+        courseDAO.close();
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runThreads(int threads, Worker worker) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> started = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            Thread th = new Thread(() -> {
+                try {
+                    start.await();
+                    worker.run(thread);
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            th.start();
+            started.add(th);
+        }
+        start.countDown();
+        for (Thread th : started) {
+            th.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Worker failed", failures.get(0));
+        }
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            throw new IllegalStateException("Check failed: " + what);
+        }
+    }
+
+    private static int studentId(int thread, int index) {
+        return 100000 + thread * STUDENTS_PER_THREAD + index;
+    }
+
+    private static String courseId(int index) {
+        return "CS" + index;
+    }
+
+    private static void clear(String directory) {
+        File dir = new File(directory);
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    file.delete();
+                }
+            }
+        }
+        FileUtil.ensureDirectoryExists(directory);
+    }
+}
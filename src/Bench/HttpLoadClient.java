@@ -0,0 +1,297 @@
+package Bench;
+
+import Utils.LatencyHistogram;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load test for ApiServer: keeps `connections` keep-alive connections busy, each
+ * sending its next request as soon as the previous answer arrives, and prints requests
+ * per second, status counts and latency percentiles. Reads fetch a random student;
+ * writes enroll a random student in, or drop them from, a random course.
+ *
+ * All connections are driven by one thread on a selector with minimal HTTP/1.1
+ * handling, so the client stays cheap next to the server even at thousands of
+ * connections. With a student count, the server is first seeded with that many
+ * students (IDs from 1,000,000) and 100 courses (LOAD000 to LOAD099).
+ *
+ * Usage: java Bench.HttpLoadClient [url] [connections] [seconds] [write percent] [students to seed]
+ *   e.g. java StudentManagementSystem --serve 8080 --data bench-data/api &
+ *        java Bench.HttpLoadClient http://localhost:8080 2000 30 10 10000
+ */
+public class HttpLoadClient {
+    private static final int FIRST_STUDENT = 1_000_000;
+    private static final int COURSES = 100;
+    private static final int DEFAULT_STUDENTS = 1000;
+    // Share of the run spent warming up before anything is recorded
+    private static final double WARMUP_FRACTION = 0.2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final URI base;
+    private final InetSocketAddress address;
+    private final int students;
+    private final int writePercent;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    // Indexed by status / 100; slot 0 counts connection errors
+    private final long[] statuses = new long[6];
+    private long busy;
+    private long completed;
+    private boolean recording;
+
+    HttpLoadClient(URI base, int students, int writePercent) {
+        this.base = base;
+        this.address = new InetSocketAddress(base.getHost(), base.getPort() < 0 ? 80 : base.getPort());
+        this.students = students;
+        this.writePercent = writePercent;
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI base = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int seed = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+
+        HttpLoadClient load = new HttpLoadClient(base, seed > 0 ? seed : DEFAULT_STUDENTS, writePercent);
+        if (seed > 0) {
+            long start = System.nanoTime();
+            load.seed(Math.min(connections, 256));
+            System.out.printf("Seeded %,d students and %d courses in %.1f s%n", seed, COURSES,
+                    (System.nanoTime() - start) / 1e9);
+        }
+        System.out.printf("%,d connections for %d s, %d%% writes against %s%n", connections, seconds, writePercent, base);
+        load.run(connections, seconds);
+    }
+
+    /**
+     * Adds the courses and students the run reads and enrolls; existing ones are kept
+     */
+    void seed(int concurrency) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        for (int i = 0; i < COURSES; i++) {
+            post(client, inFlight, "/courses", String.format(
+                    "{\"courseId\":\"LOAD%03d\",\"courseName\":\"Load Test %d\",\"credits\":3,"
+                            + "\"instructor\":\"Dr. Load\",\"maxCapacity\":%d}", i, i, students));
+        }
+        for (int i = 0; i < students; i++) {
+            int id = FIRST_STUDENT + i;
+            post(client, inFlight, "/students", String.format(
+                    "{\"id\":%d,\"name\":\"Load Student %d\",\"email\":\"load%d@example.edu\",\"age\":%d,"
+                            + "\"major\":\"Major %d\",\"gpa\":%.2f}", id, i, id, 18 + i % 10, i % 20, (i % 400) / 100.0));
+        }
+        inFlight.acquire(concurrency);
+    }
+
+    private void post(HttpClient client, Semaphore inFlight, String path, String json) throws InterruptedException {
+        inFlight.acquire();
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error != null) {
+                System.err.println("Seeding " + path + " failed: " + error);
+            } else if (response.statusCode() != 201 && response.statusCode() != 409) {
+                System.err.println("Seeding " + path + " returned " + response.statusCode());
+            }
+            inFlight.release();
+        });
+    }
+
+    void run(int connectionCount, int seconds) throws IOException {
+        long start = System.nanoTime();
+        long measureFrom = start + (long) (seconds * WARMUP_FRACTION * 1e9);
+        long deadline = start + seconds * 1_000_000_000L;
+        long measureStart = 0;
+        int open = 0;
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connectionCount; i++) {
+                if (connect(selector)) {
+                    open++;
+                }
+            }
+            while (open > 0) {
+                long now = System.nanoTime();
+                if (!recording && now >= measureFrom) {
+                    recording = true;
+                    measureStart = now;
+                }
+                selector.select(100);
+                now = System.nanoTime();
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            connection.channel.finishConnect();
+                            send(key, connection);
+                        } else if (key.isWritable()) {
+                            write(key, connection);
+                        } else if (key.isReadable() && read(connection, now)) {
+                            if (now < deadline) {
+                                send(key, connection);
+                            } else {
+                                connection.channel.close();
+                                open--;
+                            }
+                        }
+                    } catch (IOException e) {
+                        if (recording) {
+                            statuses[0]++;
+                            completed++;
+                        }
+                        connection.channel.close();
+                        open--;
+                        if (now < deadline && connect(selector)) {
+                            open++;
+                        }
+                    }
+                }
+            }
+        }
+        double measured = (System.nanoTime() - measureStart) / 1e9;
+
+        LatencyHistogram.Snapshot snapshot = latencies.snapshot();
+        System.out.printf("%,d requests in %.1f s: %,.0f requests/s%n", completed, measured, completed / measured);
+        System.out.printf("  2xx %,d   4xx %,d   5xx %,d (503 busy %,d)   errors %,d%n",
+                statuses[2], statuses[4], statuses[5], busy, statuses[0]);
+        System.out.printf("  latency ms: p50 %.2f   p99 %.2f   p99.9 %.2f   max %.2f%n",
+                snapshot.percentileNanos(50) / 1e6, snapshot.percentileNanos(99) / 1e6,
+                snapshot.percentileNanos(99.9) / 1e6, snapshot.getMaxNanos() / 1e6);
+    }
+
+    private boolean connect(Selector selector) {
+        try {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            if (channel.connect(address)) {
+                send(channel.register(selector, 0, connection), connection);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, connection);
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Cannot connect to " + address + ": " + e.getMessage());
+            statuses[0]++;
+            return false;
+        }
+    }
+
+    private void send(SelectionKey key, Connection connection) throws IOException {
+        connection.request = ByteBuffer.wrap(request().getBytes(StandardCharsets.US_ASCII));
+        connection.sent = System.nanoTime();
+        write(key, connection);
+    }
+
+    private void write(SelectionKey key, Connection connection) throws IOException {
+        connection.channel.write(connection.request);
+        key.interestOps(connection.request.hasRemaining() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * Reads what arrived; returns true once the whole response is in
+     */
+    private boolean read(Connection connection, long now) throws IOException {
+        ByteBuffer buffer = connection.response;
+        if (connection.channel.read(buffer) < 0) {
+            throw new IOException("connection closed by server");
+        }
+        int status = connection.complete();
+        if (status < 0) {
+            return false;
+        }
+        if (recording) {
+            latencies.record(now - connection.sent);
+            completed++;
+            statuses[Math.min(5, status / 100)]++;
+            if (status == 503) {
+                busy++;
+            }
+        }
+        return true;
+    }
+
+    private String request() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int student = FIRST_STUDENT + random.nextInt(students);
+        String host = "Host: " + address.getHostString() + "\r\n";
+        if (random.nextInt(100) >= writePercent) {
+            return "GET /students/" + student + " HTTP/1.1\r\n" + host + "\r\n";
+        }
+        return (random.nextBoolean() ? "PUT" : "DELETE") + String.format(" /students/%d/courses/LOAD%03d HTTP/1.1\r\n",
+                student, random.nextInt(COURSES)) + host + "Content-Length: 0\r\n\r\n";
+    }
+
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer response = ByteBuffer.allocate(BUFFER_SIZE);
+        ByteBuffer request;
+        long sent;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Status of the response in the buffer once all of it arrived (and consumes it), else -1
+         */
+        int complete() throws IOException {
+            int end = headerEnd();
+            if (end < 0) {
+                if (!response.hasRemaining()) {
+                    throw new IOException("response headers too long");
+                }
+                return -1;
+            }
+            String headers = new String(response.array(), 0, end, StandardCharsets.US_ASCII);
+            int status = Integer.parseInt(headers.substring(9, 12));
+            int length = 0;
+            for (String line : headers.split("\r\n")) {
+                if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    length = Integer.parseInt(line.substring(15).trim());
+                }
+            }
+            int total = end + 4 + length;
+            if (total > response.capacity()) {
+                throw new IOException("response larger than " + response.capacity() + " bytes");
+            }
+            if (response.position() < total) {
+                return -1;
+            }
+            // Anything past this response belongs to the next one
+            response.flip().position(total);
+            response.compact();
+            return status;
+        }
+
+        private int headerEnd() {
+            byte[] bytes = response.array();
+            for (int i = 3; i < response.position(); i++) {
+                if (bytes[i] == '\n' && bytes[i - 1] == '\r' && bytes[i - 2] == '\n' && bytes[i - 3] == '\r') {
+                    return i - 3;
+                }
+            }
+            return -1;
+        }
+    }
+}
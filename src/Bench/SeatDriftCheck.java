@@ -0,0 +1,155 @@
+package Bench;
+
+import DAO.CourseDAO;
+import DAO.EnrollmentService;
+import DAO.SeatReservationEngine;
+import DAO.StudentDAO;
+import Models.Course;
+import Models.Student;
+import Utils.StorageConfig;
+import java.io.File;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Checks that the seat counters of SeatReservationEngine agree with the course
+ * records. First drops and enrolls on an engine that has no counter yet, as after a
+ * restart; then enrolls and drops from many threads while another thread keeps
+ * dropping counters, as course updates do; last deletes an enrolled student and a
+ * course. After each step every course must have as many free seats in the engine as
+ * in its record, and count as many students as its roster.
+ *
+ * Usage: java Bench.SeatDriftCheck [threads] [data directory]
+ */
+public class SeatDriftCheck {
+    private static final int COURSES = 4;
+    private static final int CAPACITY = 8;
+    private static final int STUDENTS = 64;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        String dataDirectory = args.length > 1 ? args[1] : "bench-data/seat-drift";
+        clear(dataDirectory);
+        StorageConfig config = new StorageConfig();
+        config.setDataDirectory(dataDirectory);
+        config.setJournalEnabled(true);
+        StudentDAO studentDAO = new StudentDAO(config);
+        CourseDAO courseDAO = new CourseDAO(config);
+
+        // 1. A drop and an enroll on a cold engine: capacity 2 with 2 enrolled
+        courseDAO.addCourse(new Course("COLD", "Cold start", 3, "Instructor", 2));
+        for (int id = 1; id <= 3; id++) {
+            studentDAO.addStudent(new Student("Student " + id, id, "s" + id + "@university.edu", 20, "Major", 3.0));
+        }
+        EnrollmentService warm = new EnrollmentService(studentDAO, courseDAO, config);
+        check(warm.enroll(1, "COLD") && warm.enroll(2, "COLD"), "fill COLD");
+        warm.close();
+        EnrollmentService cold = new EnrollmentService(studentDAO, courseDAO, config);
+        check(cold.drop(1, "COLD"), "drop from COLD");
+        compare(cold.getSeatReservationEngine(), courseDAO, "COLD", "after a cold drop");
+        check(cold.enroll(3, "COLD"), "enroll in COLD");
+        compare(cold.getSeatReservationEngine(), courseDAO, "COLD", "after refilling");
+        check(!cold.enroll(1, "COLD"), "full COLD turns the next student away");
+        check(!cold.enroll(1, " cold "), "another spelling of COLD is just as full");
+        check(cold.getSeatReservationEngine().getAvailableSeats("Cold") == 0, "every spelling shares one counter");
+        cold.close();
+        System.out.println("Cold engine: seat counts match the record");
+
+        // 2. Enroll and drop from many threads while counters keep being dropped
+        for (int c = 0; c < COURSES; c++) {
+            courseDAO.addCourse(new Course(courseId(c), "Course " + c, 3, "Instructor", CAPACITY));
+        }
+        for (int s = 0; s < STUDENTS; s++) {
+            int id = 100 + s;
+            studentDAO.addStudent(new Student("Student " + id, id, "s" + id + "@university.edu", 20, "Major", 3.0));
+        }
+        EnrollmentService service = new EnrollmentService(studentDAO, courseDAO, config);
+        SeatReservationEngine engine = service.getSeatReservationEngine();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread forgetter = new Thread(() -> {
+            while (!done.get()) {
+                engine.forget(courseId(ThreadLocalRandom.current().nextInt(COURSES)));
+                Thread.yield();
+            }
+        });
+        forgetter.start();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    int studentId = 100 + random.nextInt(STUDENTS);
+                    String courseId = courseId(random.nextInt(COURSES));
+                    if (random.nextBoolean()) {
+                        service.enroll(studentId, courseId);
+                    } else {
+                        service.drop(studentId, courseId);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        done.set(true);
+        forgetter.join();
+        for (int c = 0; c < COURSES; c++) {
+            String courseId = courseId(c);
+            compare(engine, courseDAO, courseId, "after the concurrent run");
+            check(courseDAO.findCourseById(courseId).getCurrentEnrollment()
+                    == studentDAO.getStudentsEnrolledInCourse(courseId).size(), "seat count of " + courseId + " matches its roster");
+        }
+        System.out.println(threads + " threads: seat counts match the records");
+
+        // 3. Deleting a student releases its seats; deleting a course drops its students
+        Student enrolled = null;
+        for (Student student : studentDAO.getAllStudents()) {
+            if (student.getTotalEnrolledCourses() > 0) {
+                enrolled = student;
+            }
+        }
+        check(enrolled != null && service.deleteStudent(enrolled.getId()), "delete an enrolled student");
+        for (int c = 0; c < COURSES; c++) {
+            String courseId = courseId(c);
+            compare(engine, courseDAO, courseId, "after deleting a student");
+            check(courseDAO.findCourseById(courseId).getCurrentEnrollment()
+                    == studentDAO.getStudentsEnrolledInCourse(courseId).size(), "seat count of " + courseId + " after deleting a student");
+        }
+        check(service.deleteCourse(courseId(1)), "delete course " + courseId(1));
+        for (Student student : studentDAO.getAllStudents()) {
+            check(!student.isEnrolledInCourse(courseId(1)), "student " + student.getId() + " still enrolled in a deleted course");
+        }
+        service.close();
+        System.out.println("Deletes: no enrollment outlives its student or course");
+        studentDAO.close();
+        courseDAO.close();
+    }
+
+    private static void compare(SeatReservationEngine engine, CourseDAO courseDAO, String courseId, String when) {
+        Course course = courseDAO.findCourseById(courseId);
+        int recorded = course.getMaxCapacity() - course.getCurrentEnrollment();
+        int counted = engine.getAvailableSeats(courseId);
+        check(counted == recorded, courseId + " " + when + ": engine has " + counted + " free, record " + recorded);
+    }
+
+    private static String courseId(int course) {
+        return "D" + (100 + course);
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            throw new IllegalStateException("Check failed: " + what);
+        }
+    }
+
+    private static void clear(String dataDirectory) {
+        File[] files = new File(dataDirectory).listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+}
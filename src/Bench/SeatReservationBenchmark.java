@@ -0,0 +1,136 @@
+package Bench;
+
+import DAO.CourseDAO;
+import DAO.SeatReservationEngine;
+import Models.Course;
+import Utils.StorageConfig;
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reservations per second during a registration rush, on one hot course and spread
+ * over 5,000 courses, for 1..N threads. Compares the old check-then-increment under a
+ * lock, a single compare-and-set counter per course (Course.incrementEnrollment) and
+ * the striped SeatReservationEngine. Every run asks for more seats than exist and
+ * checks that exactly the capacity was handed out.
+ *
+ * Usage: java Bench.SeatReservationBenchmark [max threads] [data directory]
+ */
+public class SeatReservationBenchmark {
+    private static final int ATTEMPTS_PER_THREAD = 400_000;
+    private static final int MANY_COURSES = 5_000;
+
+    private interface Reserver {
+        boolean reserve(int course);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors() * 2;
+        String dataDirectory = args.length > 1 ? args[1] : "bench-data/seats";
+        new File(dataDirectory, "courses.dat").delete();
+        new File(dataDirectory, "courses.journal").delete();
+
+        StorageConfig config = new StorageConfig();
+        config.setDataDirectory(dataDirectory);
+        config.setJournalEnabled(true);
+        CourseDAO courseDAO = new CourseDAO(config);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            for (int courses : new int[] {1, MANY_COURSES}) {
+                long attempts = (long) threads * ATTEMPTS_PER_THREAD;
+                // Demand is twice the seats on the hot course; spread over many courses it
+                // is four times, so that even the least picked course still fills up
+                int capacity = (int) Math.max(1, attempts / (courses == 1 ? 2 : 4) / courses);
+                Course[] records = createCourses(courseDAO, courses, capacity, threads);
+                String label = courses == 1 ? "hot course" : courses + " courses";
+
+                Object lock = new Object();
+                run("locked check+increment", label, threads, courses, capacity, course -> {
+                    synchronized (lock) {
+                        Course record = records[course];
+                        if (record.hasAvailableSpots()) {
+                            record.setCurrentEnrollment(record.getCurrentEnrollment() + 1);
+                            return true;
+                        }
+                        return false;
+                    }
+                });
+                resetEnrollment(records);
+
+                run("single CAS counter", label, threads, courses, capacity,
+                        course -> records[course].incrementEnrollment());
+                resetEnrollment(records);
+
+                SeatReservationEngine engine = new SeatReservationEngine(courseDAO);
+                String[] ids = new String[courses];
+                for (int c = 0; c < courses; c++) {
+                    ids[c] = records[c].getCourseId();
+                }
+                run("striped engine", label, threads, courses, capacity, course -> engine.tryReserve(ids[course]));
+                for (int c = 0; c < courses; c++) {
+                    if (engine.getAvailableSeats(ids[c]) != 0) {
+                        throw new IllegalStateException("Seats left over in " + ids[c]);
+                    }
+                }
+                engine.close();
+            }
+        }
+        courseDAO.close();
+    }
+
+    private static Course[] createCourses(CourseDAO courseDAO, int courses, int capacity, int round) {
+        Course[] records = new Course[courses];
+        for (int c = 0; c < courses; c++) {
+            String id = "R" + round + "-" + courses + "-" + c;
+            records[c] = new Course(id, "Course " + c, 3, "Instructor", capacity);
+            courseDAO.addCourse(records[c]);
+        }
+        return records;
+    }
+
+    private static void resetEnrollment(Course[] records) {
+        for (Course record : records) {
+            record.setCurrentEnrollment(0);
+        }
+    }
+
+    private static void run(String name, String label, int threads, int courses, int capacity, Reserver reserver)
+            throws InterruptedException {
+        AtomicLong granted = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long mine = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    if (reserver.reserve(courses == 1 ? 0 : random.nextInt(courses))) {
+                        mine++;
+                    }
+                }
+                granted.addAndGet(mine);
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long expected = (long) capacity * courses;
+        if (granted.get() != expected) {
+            throw new IllegalStateException(name + " granted " + granted.get() + " seats, capacity is " + expected);
+        }
+        System.out.printf("%2d threads, %-12s %-24s %,14.0f attempts/s%n", threads, label, name,
+                (double) threads * ATTEMPTS_PER_THREAD / (elapsed / 1e9));
+    }
+}
@@ -0,0 +1,163 @@
+package Bench;
+
+import DAO.StudentDAO;
+import Models.Student;
+import Utils.FileUtil;
+import Utils.StorageConfig;
+import Utils.StudentCodec;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Student store startup and single-update save time by shard count. Starts from one
+ * students.dat, migrates it to each shard count in turn (the first checkpoint after
+ * opening with a new count rewrites the store in the new layout), and finally back to
+ * a single file, checking after every step that the students read back unchanged.
+ *
+ * Usage: java Bench.ShardBenchmark [student count] [data directory] [shard counts...]
+ */
+public class ShardBenchmark {
+    private static final int FIRST_ID = 100000;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String dataDirectory = args.length > 1 ? args[1] : "bench-data/shards";
+        List<Integer> shardCounts = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            shardCounts.add(Integer.parseInt(args[i]));
+        }
+        if (shardCounts.isEmpty()) {
+            shardCounts = List.of(1, 2, 4, 8);
+        }
+
+        FileUtil.ensureDirectoryExists(dataDirectory);
+        for (File file : new File(dataDirectory).listFiles()) {
+            if (file.getName().startsWith("students.")) {
+                file.delete();
+            }
+        }
+        System.out.println("Writing " + count + " students to " + dataDirectory + " ...");
+        FileUtil.saveRecords(students(count), new File(dataDirectory, "students.dat").getPath(), StudentCodec.INSTANCE);
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors available");
+
+        for (int shards : shardCounts) {
+            long migrated = migrate(dataDirectory, shards, count);
+            double open = Double.MAX_VALUE;
+            double save = Double.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                open = Math.min(open, open(dataDirectory, shards, count));
+                save = Math.min(save, saveOne(dataDirectory, shards, count, round));
+            }
+            System.out.printf("%d shard(s): migrate %8.1f ms   open %8.1f ms   update + save %8.1f ms%n",
+                    shards, migrated / 1e6, open / 1e6, save / 1e6);
+        }
+        migrate(dataDirectory, 1, count);
+        for (File file : new File(dataDirectory).listFiles()) {
+            if (file.getName().matches("students\\.\\d+-of-\\d+\\.dat")) {
+                throw new IllegalStateException("Shard file left after migrating back: " + file);
+            }
+        }
+        System.out.println("Migrated back to students.dat, all students intact");
+    }
+
+    private static List<Student> students(int count) {
+        List<Student> students = new ArrayList<>(count);
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            students.add(student(FIRST_ID + i, random));
+        }
+        return students;
+    }
+
+    private static Student student(int id, Random random) {
+        Student student = new Student("Student " + id, id, "student" + id + "@university.edu",
+                17 + random.nextInt(10), "Major " + random.nextInt(40), random.nextInt(401) / 100.0);
+        student.enrollInCourse("CS" + (100 + random.nextInt(50)));
+        return student;
+    }
+
+    private static StorageConfig config(String dataDirectory, int shards) {
+        StorageConfig config = new StorageConfig();
+        config.setDataDirectory(dataDirectory);
+        config.setStudentShards(shards);
+        return config;
+    }
+
+    /**
+     * Rewrites whatever layout is on disk as `shards` files; returns the nanoseconds taken
+     */
+    private static long migrate(String dataDirectory, int shards, int count) {
+        long start = System.nanoTime();
+        StudentDAO dao = new StudentDAO(config(dataDirectory, shards));
+        if (!dao.checkpoint()) {
+            throw new IllegalStateException("Migration to " + shards + " shard(s) failed");
+        }
+        long elapsed = System.nanoTime() - start;
+        dao.close();
+        verify(new StudentDAO(config(dataDirectory, shards)), count);
+        return elapsed;
+    }
+
+    private static long open(String dataDirectory, int shards, int count) {
+        long start = System.nanoTime();
+        StudentDAO dao = new StudentDAO(config(dataDirectory, shards));
+        long elapsed = System.nanoTime() - start;
+        if (dao.getTotalStudents() != count) {
+            throw new IllegalStateException("Expected " + count + " students, found " + dao.getTotalStudents());
+        }
+        dao.close();
+        return elapsed;
+    }
+
+    /**
+     * One update without a journal, so it is saved before updateStudent returns; the
+     * change must survive a reopen
+     */
+    private static long saveOne(String dataDirectory, int shards, int count, int round) {
+        StudentDAO dao = new StudentDAO(config(dataDirectory, shards));
+        int id = FIRST_ID + count / 2;
+        Student student = dao.findStudentById(id);
+        Student updated = new Student(student);
+        updated.setMajor("Updated " + shards + "/" + round);
+
+        long start = System.nanoTime();
+        if (!dao.updateStudent(updated)) {
+            throw new IllegalStateException("Update of " + id + " failed");
+        }
+        long elapsed = System.nanoTime() - start;
+        dao.close();
+
+        StudentDAO reopened = new StudentDAO(config(dataDirectory, shards));
+        if (!reopened.findStudentById(id).getMajor().equals(updated.getMajor())) {
+            throw new IllegalStateException("Update of " + id + " was not saved");
+        }
+        // Put the original major back, so every step checks against the generated students
+        reopened.updateStudent(student);
+        reopened.close();
+        return elapsed;
+    }
+
+    /**
+     * Every student reads back as generated
+     */
+    private static void verify(StudentDAO dao, int count) {
+        if (dao.getTotalStudents() != count) {
+            throw new IllegalStateException("Expected " + count + " students, found " + dao.getTotalStudents());
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            Student expected = student(FIRST_ID + i, random);
+            Student actual = dao.findStudentById(expected.getId());
+            if (actual == null || !actual.getName().equals(expected.getName())
+                    || !actual.getEmail().equals(expected.getEmail()) || actual.getAge() != expected.getAge()
+                    || !actual.getMajor().equals(expected.getMajor()) || actual.getGpa() != expected.getGpa()
+                    || !actual.getEnrolledCourses().equals(expected.getEnrolledCourses())) {
+                throw new IllegalStateException("Student " + expected.getId() + " differs after migration");
+            }
+        }
+        dao.close();
+    }
+}
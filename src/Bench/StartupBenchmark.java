@@ -0,0 +1,62 @@
+package Bench;
+
+import DAO.StudentDAO;
+import Models.Student;
+import Utils.FileUtil;
+import Utils.StorageConfig;
+import Utils.StudentCodec;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares eager and lazy DAO startup: time until the DAO is open (what stands
+ * between launch and the first menu prompt) and time for the first ID lookup.
+ *
+ * Usage: java Bench.StartupBenchmark [student count] [data directory]
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        String dataDirectory = args.length > 1 ? args[1] : "bench-data";
+        FileUtil.ensureDirectoryExists(dataDirectory);
+
+        System.out.println("Writing " + count + " students to " + dataDirectory + " ...");
+        List<Student> students = new ArrayList<>(count);
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            Student student = new Student("Student " + i, 100000 + i, "student" + i + "@university.edu",
+                    17 + random.nextInt(10), "Major " + random.nextInt(40), random.nextInt(401) / 100.0);
+            student.enrollInCourse("CS" + (100 + random.nextInt(50)));
+            students.add(student);
+        }
+        FileUtil.saveRecords(students, new File(dataDirectory, "students.dat").getPath(), StudentCodec.INSTANCE);
+        students = null;
+
+        int lookupId = 100000 + count / 2;
+        for (int round = 1; round <= 3; round++) {
+            report("eager", round, dataDirectory, false, lookupId);
+            report("lazy ", round, dataDirectory, true, lookupId);
+        }
+    }
+
+    private static void report(String label, int round, String dataDirectory, boolean lazy, int lookupId) {
+        StorageConfig config = new StorageConfig();
+        config.setDataDirectory(dataDirectory);
+        config.setLazyLoadingEnabled(lazy);
+
+        long start = System.nanoTime();
+        StudentDAO dao = new StudentDAO(config);
+        long opened = System.nanoTime();
+        Student found = dao.findStudentById(lookupId);
+        long looked = System.nanoTime();
+        if (found == null) {
+            throw new IllegalStateException("Lookup of " + lookupId + " failed");
+        }
+        System.out.printf("%s round %d: time-to-first-prompt %8.2f ms, time-to-first-lookup %8.2f ms%n",
+                label, round, (opened - start) / 1e6, (looked - start) / 1e6);
+        dao.close();
+    }
+}
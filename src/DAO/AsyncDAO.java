@@ -0,0 +1,300 @@
+package DAO;
+
+import Models.Course;
+import Models.Student;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking front for StudentDAO, CourseDAO and EnrollmentService: every operation
+ * returns a CompletableFuture, so a caller can keep thousands of requests in flight
+ * without a thread for each.
+ *
+ * Reads run on the calling thread against memory and return completed futures. Writes
+ * go into a bounded queue drained by one writer thread, which applies a batch of
+ * writes and then makes the whole batch durable with one flush per DAO touched; each
+ * future completes once its write is durable, or exceptionally with an
+ * UncheckedIOException if the flush failed. A write is visible to reads as soon as it
+ * is applied, possibly before its future completes.
+ *
+ * When the queue is full, new writes fail at once with RejectedExecutionException
+ * rather than buffering without limit: callers should hold off and retry. Dependent
+ * stages added with thenApply and the like run on the writer thread; use the *Async
+ * variants for anything slow.
+ *
+ * Create the DAOs with journaling and write-behind, so that applying a write does no
+ * I/O and only the batch flush touches the disk.
+ */
+public class AsyncDAO implements AutoCloseable {
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    // Writes applied before one flush makes them durable
+    private static final int MAX_BATCH = 1024;
+
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+    private final EnrollmentService enrollmentService;
+    private final BlockingQueue<Write<?>> queue;
+    private final Thread writer;
+    // Set under this lock, so no write can be queued after the writer has seen it
+    private volatile boolean closed;
+
+    public AsyncDAO(StudentDAO studentDAO, CourseDAO courseDAO, EnrollmentService enrollmentService) {
+        this(studentDAO, courseDAO, enrollmentService, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public AsyncDAO(StudentDAO studentDAO, CourseDAO courseDAO, EnrollmentService enrollmentService,
+                    int queueCapacity) {
+        this.studentDAO = studentDAO;
+        this.courseDAO = courseDAO;
+        this.enrollmentService = enrollmentService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::writeLoop, "async-dao-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Reads
+
+    public CompletableFuture<Student> findStudentById(int id) {
+        return read(() -> studentDAO.findStudentById(id));
+    }
+
+    public CompletableFuture<List<Student>> findStudentsByName(String name) {
+        return read(() -> studentDAO.findStudentsByName(name));
+    }
+
+    public CompletableFuture<List<Student>> findStudentsByMajor(String major) {
+        return read(() -> studentDAO.findStudentsByMajor(major));
+    }
+
+    public CompletableFuture<List<Student>> getStudentsEnrolledInCourse(String courseId) {
+        return read(() -> studentDAO.getStudentsEnrolledInCourse(courseId));
+    }
+
+    public CompletableFuture<Course> findCourseById(String courseId) {
+        return read(() -> courseDAO.findCourseById(courseId));
+    }
+
+    public CompletableFuture<List<Course>> getAllCourses() {
+        return read(courseDAO::getAllCourses);
+    }
+
+    public CompletableFuture<List<Course>> getAvailableCourses() {
+        return read(courseDAO::getAvailableCourses);
+    }
+
+    public CompletableFuture<List<Course>> getMostEnrolledCourses(int limit) {
+        return read(() -> courseDAO.getMostEnrolledCourses(limit));
+    }
+
+    /**
+     * Any other student query, for example queryStudents(dao -> dao.getStudentsWithGPAAbove(3.5))
+     */
+    public <T> CompletableFuture<T> queryStudents(Function<StudentDAO, T> query) {
+        return read(() -> query.apply(studentDAO));
+    }
+
+    /**
+     * Any other course query, for example queryCourses(CourseDAO::getFullCourses)
+     */
+    public <T> CompletableFuture<T> queryCourses(Function<CourseDAO, T> query) {
+        return read(() -> query.apply(courseDAO));
+    }
+
+    // Writes: each completes with the DAO's answer once durable
+
+    public CompletableFuture<Boolean> addStudent(Student student) {
+        return write(Target.STUDENTS, () -> studentDAO.addStudent(student));
+    }
+
+    /**
+     * Per-row reject reasons as StudentDAO.importStudents returns them. Imported rows
+     * are not journaled, so the batch they arrive in is made durable with a checkpoint,
+     * which forces the new snapshot to disk before it drops the journal.
+     */
+    public CompletableFuture<String[]> importStudents(List<Student> batch) {
+        return write(Target.STUDENT_IMPORTS, () -> studentDAO.importStudents(batch));
+    }
+
+    public CompletableFuture<Boolean> updateStudent(Student student) {
+        return write(Target.STUDENTS, () -> studentDAO.updateStudent(student));
+    }
+
+    /**
+     * Drops the student's enrollments first; EnrollmentService syncs those before the delete
+     */
+    public CompletableFuture<Boolean> deleteStudent(int studentId) {
+        return write(Target.STUDENTS, () -> enrollmentService.deleteStudent(studentId));
+    }
+
+    public CompletableFuture<Boolean> addCourse(Course course) {
+        return write(Target.COURSES, () -> courseDAO.addCourse(course));
+    }
+
+    public CompletableFuture<Boolean> updateCourse(Course course) {
+        return write(Target.COURSES, () -> courseDAO.updateCourse(course));
+    }
+
+    /**
+     * Drops every student from the course first, as deleteStudent does
+     */
+    public CompletableFuture<Boolean> deleteCourse(String courseId) {
+        return write(Target.COURSES, () -> enrollmentService.deleteCourse(courseId));
+    }
+
+    public CompletableFuture<Boolean> enroll(int studentId, String courseId) {
+        return write(Target.ENROLLMENTS, () -> enrollmentService.enroll(studentId, courseId));
+    }
+
+    public CompletableFuture<Boolean> drop(int studentId, String courseId) {
+        return write(Target.ENROLLMENTS, () -> enrollmentService.drop(studentId, courseId));
+    }
+
+    /**
+     * Writes waiting to be applied
+     */
+    public int getQueuedWrites() {
+        return queue.size();
+    }
+
+    /**
+     * Writes that can be queued before new ones are rejected
+     */
+    public int getRemainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    /**
+     * Stops taking writes, then applies and flushes every queued one before returning.
+     * The DAOs stay open.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> CompletableFuture<T> read(Supplier<T> query) {
+        try {
+            return CompletableFuture.completedFuture(query.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> CompletableFuture<T> write(Target target, Supplier<T> operation) {
+        Write<T> write = new Write<>(target, operation);
+        boolean queued;
+        synchronized (this) {
+            if (closed) {
+                write.future.completeExceptionally(new RejectedExecutionException("AsyncDAO is closed"));
+                return write.future;
+            }
+            queued = queue.offer(write);
+        }
+        if (!queued) {
+            write.future.completeExceptionally(new RejectedExecutionException("write queue is full"));
+        }
+        return write.future;
+    }
+
+    private void writeLoop() {
+        List<Write<?>> batch = new ArrayList<>(MAX_BATCH);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Write<?> first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Only close() ends the loop, once the queue is empty
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            applyBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Applies every write, flushes each DAO touched once, then completes the futures
+     */
+    private void applyBatch(List<Write<?>> batch) {
+        boolean[] touched = new boolean[Target.values().length];
+        for (Write<?> write : batch) {
+            write.apply();
+            touched[write.target.ordinal()] = true;
+        }
+        // A checkpoint also covers the journaled student writes of the batch; it returns true
+        // only once the snapshot and its directory are forced and the journal is reset
+        boolean studentsDurable = touched[Target.STUDENT_IMPORTS.ordinal()] ? studentDAO.checkpoint()
+                : !touched[Target.STUDENTS.ordinal()] || studentDAO.flush();
+        boolean coursesDurable = !touched[Target.COURSES.ordinal()] || courseDAO.flush();
+        boolean enrollmentsDurable = !touched[Target.ENROLLMENTS.ordinal()] || enrollmentService.flush();
+        for (Write<?> write : batch) {
+            boolean durable;
+            switch (write.target) {
+                case STUDENTS:
+                case STUDENT_IMPORTS: durable = studentsDurable; break;
+                case COURSES: durable = coursesDurable; break;
+                default: durable = enrollmentsDurable;
+            }
+            write.complete(durable);
+        }
+    }
+
+    /**
+     * What a write must flush to be durable
+     */
+    private enum Target {
+        STUDENTS, STUDENT_IMPORTS, COURSES, ENROLLMENTS
+    }
+
+    private static final class Write<T> {
+        final Target target;
+        final Supplier<T> operation;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        RuntimeException failure;
+
+        Write(Target target, Supplier<T> operation) {
+            this.target = target;
+            this.operation = operation;
+        }
+
+        void apply() {
+            try {
+                result = operation.get();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        void complete(boolean durable) {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else if (!durable) {
+                future.completeExceptionally(new UncheckedIOException(
+                        new IOException("write applied but could not be made durable")));
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package DAO;
+
+import Models.Student;
+import Utils.FileUtil;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read-only, memory-mapped student store laid out column by column for reporting.
+ *
+ * File layout (little-endian):
+ *   header:  magic, version, row count, byte offset of the string heap
+ *   columns: id int[n] (sorted), age int[n], gpa double[n],
+ *            then name, email, major and course list as int[n] offsets into the heap
+ *   heap:    [int length][UTF-8 bytes] per string, course lists joined with ','
+ *
+ * Scans such as getStudentsWithGPAAbove run directly over the mapped columns;
+ * Student objects are only built for the rows that are returned.
+ * The whole file is mapped at once, so it must stay below 2 GB.
+ */
+public class ColumnarStudentStore {
+    private static final int MAGIC = 0x534D5343; // "SMSC"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int NULL_STRING = -1;
+
+    private final MappedByteBuffer mapped;
+    private final int rowCount;
+    private final IntBuffer ids;
+    private final IntBuffer ages;
+    private final DoubleBuffer gpas;
+    private final IntBuffer names;
+    private final IntBuffer emails;
+    private final IntBuffer majors;
+    private final IntBuffer courses;
+    private final int heapOffset;
+
+    private ColumnarStudentStore(MappedByteBuffer mapped) throws IOException {
+        this.mapped = mapped;
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a columnar student file");
+        }
+        if (mapped.getInt(4) > VERSION) {
+            throw new IOException("Unsupported columnar file version " + mapped.getInt(4));
+        }
+        this.rowCount = mapped.getInt(8);
+        this.heapOffset = mapped.getInt(12);
+
+        int offset = HEADER_SIZE;
+        this.ids = slice(offset, rowCount * 4).asIntBuffer();
+        offset += rowCount * 4;
+        this.ages = slice(offset, rowCount * 4).asIntBuffer();
+        offset += rowCount * 4;
+        this.gpas = slice(offset, rowCount * 8).asDoubleBuffer();
+        offset += rowCount * 8;
+        this.names = slice(offset, rowCount * 4).asIntBuffer();
+        offset += rowCount * 4;
+        this.emails = slice(offset, rowCount * 4).asIntBuffer();
+        offset += rowCount * 4;
+        this.majors = slice(offset, rowCount * 4).asIntBuffer();
+        offset += rowCount * 4;
+        this.courses = slice(offset, rowCount * 4).asIntBuffer();
+    }
+
+    /**
+     * Writes students to a columnar file, rows ordered by ID
+     */
+    public static void write(List<Student> students, String filename) throws IOException {
+        Student[] rows = students.toArray(new Student[0]);
+        Arrays.sort(rows, Comparator.comparingInt(Student::getId));
+        int n = rows.length;
+
+        // Build the string heap first so the column offsets are known
+        ByteBuffer heap = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        int[][] stringColumns = new int[4][n];
+        for (int i = 0; i < n; i++) {
+            Student student = rows[i];
+            String[] values = {
+                student.getName(), student.getEmail(), student.getMajor(),
+                String.join(",", student.getEnrolledCourses())
+            };
+            for (int c = 0; c < values.length; c++) {
+                if (values[c] == null) {
+                    stringColumns[c][i] = NULL_STRING;
+                    continue;
+                }
+                byte[] bytes = values[c].getBytes(StandardCharsets.UTF_8);
+                if (heap.remaining() < bytes.length + 4) {
+                    heap = grow(heap, bytes.length + 4);
+                }
+                stringColumns[c][i] = heap.position();
+                heap.putInt(bytes.length).put(bytes);
+            }
+        }
+
+        long heapStart = HEADER_SIZE + (long) n * (4 + 4 + 8 + 4 * 4);
+        if (heapStart + heap.position() > Integer.MAX_VALUE) {
+            throw new IOException("Too many students for a single columnar file");
+        }
+
+        Path target = Paths.get(filename);
+        Path temp = Paths.get(filename + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp.toFile()), 1 << 16))) {
+            ByteBuffer scratch = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            writeInt(out, scratch, MAGIC);
+            writeInt(out, scratch, VERSION);
+            writeInt(out, scratch, n);
+            writeInt(out, scratch, (int) heapStart);
+            for (Student student : rows) {
+                writeInt(out, scratch, student.getId());
+            }
+            for (Student student : rows) {
+                writeInt(out, scratch, student.getAge());
+            }
+            for (Student student : rows) {
+                scratch.clear();
+                scratch.putDouble(student.getGpa());
+                out.write(scratch.array(), 0, 8);
+            }
+            for (int[] column : stringColumns) {
+                for (int value : column) {
+                    writeInt(out, scratch, value);
+                }
+            }
+            out.write(heap.array(), 0, heap.position());
+        }
+        FileUtil.moveIntoPlace(temp, target);
+    }
+
+    /**
+     * Maps a columnar file written by write()
+     */
+    public static ColumnarStudentStore open(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ColumnarStudentStore(mapped);
+        }
+    }
+
+    /**
+     * Get total number of students
+     */
+    public int getTotalStudents() {
+        return rowCount;
+    }
+
+    /**
+     * Find student by ID (binary search over the sorted ID column)
+     */
+    public Student findStudentById(int id) {
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = ids.get(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return readRow(mid);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get students with GPA above threshold
+     */
+    public List<Student> getStudentsWithGPAAbove(double threshold) {
+        List<Student> result = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            if (gpas.get(row) >= threshold) {
+                result.add(readRow(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get students by age range
+     */
+    public List<Student> getStudentsByAgeRange(int minAge, int maxAge) {
+        List<Student> result = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            int age = ages.get(row);
+            if (age >= minAge && age <= maxAge) {
+                result.add(readRow(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find students by major (case insensitive)
+     */
+    public List<Student> findStudentsByMajor(String major) {
+        byte[] wanted = major.getBytes(StandardCharsets.UTF_8);
+        List<Student> result = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            if (heapEqualsIgnoreCase(majors.get(row), wanted)) {
+                result.add(readRow(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count students with GPA above threshold without building any Student objects
+     */
+    public int countStudentsWithGPAAbove(double threshold) {
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (gpas.get(row) >= threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Average GPA over all students
+     */
+    public double getAverageGpa() {
+        if (rowCount == 0) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (int row = 0; row < rowCount; row++) {
+            sum += gpas.get(row);
+        }
+        return sum / rowCount;
+    }
+
+    /**
+     * Builds the Student for one row
+     */
+    private Student readRow(int row) {
+        Student student = new Student(readString(names.get(row)), ids.get(row), readString(emails.get(row)),
+                ages.get(row), readString(majors.get(row)), gpas.get(row));
+        String courseList = readString(courses.get(row));
+        if (courseList != null && !courseList.isEmpty()) {
+            student.setEnrolledCourses(Arrays.asList(courseList.split(",")));
+        }
+        return student;
+    }
+
+    private String readString(int heapPosition) {
+        if (heapPosition == NULL_STRING) {
+            return null;
+        }
+        int position = heapOffset + heapPosition;
+        int length = mapped.getInt(position);
+        byte[] bytes = new byte[length];
+        mapped.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares a heap string with wanted, ignoring ASCII case, without decoding it
+     */
+    private boolean heapEqualsIgnoreCase(int heapPosition, byte[] wanted) {
+        if (heapPosition == NULL_STRING) {
+            return false;
+        }
+        int position = heapOffset + heapPosition;
+        if (mapped.getInt(position) != wanted.length) {
+            return false;
+        }
+        position += 4;
+        for (int i = 0; i < wanted.length; i++) {
+            int a = mapped.get(position + i);
+            int b = wanted[i];
+            if (a != b && toLowerAscii(a) != toLowerAscii(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toLowerAscii(int b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer view = mapped.duplicate();
+        view.position(offset).limit(offset + length);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeInt(DataOutputStream out, ByteBuffer scratch, int value) throws IOException {
+        scratch.clear();
+        scratch.putInt(value);
+        out.write(scratch.array(), 0, 4);
+    }
+
+    private static ByteBuffer grow(ByteBuffer heap, int extra) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(heap.capacity() * 2, heap.position() + extra))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        heap.flip();
+        larger.put(heap);
+        return larger;
+    }
+}
@@ -1,43 +1,654 @@
 package DAO;
 
 import Models.Course;
+import Utils.CourseIdPool;
 import Utils.FileUtil;
+import Utils.Journal;
+import Utils.LazyRecordFile;
+import Utils.Metrics;
+import Utils.NGramIndex;
+import Utils.OperationTimer;
+import Utils.QueryCache;
+import Utils.SecondaryIndex;
+import Utils.StorageConfig;
+import Utils.CourseCodec;
+import Utils.TextUtil;
+import Utils.WriteBehindFlusher;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+/**
+ * Thread safe, with the same locking scheme as StudentDAO. Enrollment changes only
+ * need the read lock: the seat count itself is updated with compare-and-set.
+ */
 public class CourseDAO {
-    private static final String COURSES_FILE = "data/courses.dat";
+    private static final String COURSES_FILE = "courses.dat";
+    private static final String COURSES_JOURNAL = "courses.journal";
+    // Operation timings and persisted bytes/records, exported over JMX (see Metrics)
+    private static final Metrics METRICS = Metrics.component("CourseDAO");
+    private static final OperationTimer LOAD = METRICS.timer("loadCourses");
+    private static final OperationTimer SAVE = METRICS.timer("saveCourses");
+    private static final OperationTimer CHECKPOINT = METRICS.timer("checkpoint");
+    private static final OperationTimer ADD = METRICS.timer("addCourse");
+    private static final OperationTimer IMPORT = METRICS.timer("importCourses");
+    private static final OperationTimer UPDATE = METRICS.timer("updateCourse");
+    private static final OperationTimer DELETE = METRICS.timer("deleteCourse");
+    private static final OperationTimer FIND_BY_ID = METRICS.timer("findCourseById", 64);
+    private static final OperationTimer FIND_BY_NAME = METRICS.timer("findCoursesByName");
+    private static final OperationTimer FIND_BY_INSTRUCTOR = METRICS.timer("findCoursesByInstructor");
+    private static final OperationTimer CREDITS_RANGE = METRICS.timer("getCoursesByCreditsRange");
+    private static final OperationTimer AVAILABLE = METRICS.timer("getAvailableCourses");
+    private static final OperationTimer FULL = METRICS.timer("getFullCourses");
+    private static final OperationTimer MOST_ENROLLED = METRICS.timer("getMostEnrolledCourses");
+    private static final OperationTimer CHANGE_ENROLLMENT = METRICS.timer("changeEnrollment", 16);
+    private final StorageConfig config;
+    private final String coursesFile;
+    private volatile Journal<Course> journal;
+    private WriteBehindFlusher flusher;
+    // Set while opened lazily and not yet fully loaded
+    private volatile LazyRecordFile<Course> lazyFile;
+    // Courses handed out before the full load; lookups add to it holding only the read lock
+    private Map<String, Course> materialized;
+    // In insertion order; removals leave null holes until the list is compacted
     private List<Course> courses;
+    private Map<String, Course> coursesById;
+    // Position of each course in the list by normalized ID, so replacing or removing one never scans it
+    private Map<String, Integer> positions = new HashMap<>();
+    // Null entries in courses; compacted away once they make up a quarter of the list
+    private int holes;
+    
+    // Guards courses and the indexes; acquired after saveLock, never before it
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes snapshot file writes
+    private final Object saveLock = new Object();
+    // Set while the last snapshot save failed; without a journal flush() retries it
+    private volatile boolean saveFailed;
+    // Unmodifiable copies of courses, null once the set of courses or their names have changed
+    private volatile List<Course> snapshot;
+    private volatile List<Course> sortedByName;
+    // Enrollment order and full/available courses for the reports
+    private final CourseEnrollmentView enrollmentView = new CourseEnrollmentView();
+    // Optional cache of query results, null when turned off (see StorageConfig)
+    private final QueryCache<CacheRegion> queryCache;
+    // Told the ID of every course added, replaced or removed; called outside the lock
+    private final List<Consumer<String>> courseListeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * What a cached query reads: the course list and course fields, or seat counts
+     */
+    private enum CacheRegion {
+        COURSES, ENROLLMENT
+    }
+    
+    // Secondary indexes, maintained by putCourse/removeCourse
+    private final SecondaryIndex<Course, String> instructorIndex =
+            SecondaryIndex.nonUnique(CourseDAO::handleOf, course -> TextUtil.normalizeKey(course.getInstructor()));
+    private final SecondaryIndex<Course, Integer> creditsIndex =
+            SecondaryIndex.sorted(CourseDAO::handleOf, Course::getCredits);
+    private final SecondaryIndex<Course, String> nameIndex =
+            SecondaryIndex.sorted(CourseDAO::handleOf, Course::getCourseName, String.CASE_INSENSITIVE_ORDER);
+    private final List<SecondaryIndex<Course, ?>> secondaryIndexes = List.of(instructorIndex, creditsIndex, nameIndex);
+    // Substring search and prefix completion on names, maintained alongside the secondary indexes
+    private final NGramIndex<Course> nameSearch =
+            new NGramIndex<>(CourseDAO::handleOf, Course::getCourseName);
     
     public CourseDAO() {
+        this(new StorageConfig());
+    }
+    
+    public CourseDAO(StorageConfig config) {
+        this.config = config;
+        this.coursesFile = config.resolve(COURSES_FILE);
         this.courses = new ArrayList<>();
-        loadCourses();
+        this.queryCache = config.getQueryCacheSize() > 0
+                ? new QueryCache<>(CacheRegion.class, config.getQueryCacheSize()) : null;
+        if (!openLazily()) {
+            loadCourses();
+        }
+        if (journal != null && !config.isJournalEnabled()) {
+            foldLeftoverJournal();
+        }
+        
+        if (config.isWriteBehindEnabled()) {
+            flusher = new WriteBehindFlusher("course-flusher", this::flushPendingWrites,
+                    config.getFlushWindowMillis(), config.getFlushMaxMutations());
+        }
     }
     
     /**
-     * Load courses from file
+     * Load courses from file, then replay any journaled mutations on top
      */
     private void loadCourses() {
+        long start = LOAD.start();
         try {
-            FileUtil.ensureDirectoryExists("data");
-            courses = FileUtil.loadFromFile(COURSES_FILE);
+            FileUtil.ensureDirectoryExists(config.getDataDirectory());
+            courses = FileUtil.loadRecords(coursesFile, CourseCodec.INSTANCE);
+            METRICS.addRecordsRead(courses.size());
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error loading courses: " + e.getMessage());
             courses = new ArrayList<>();
         }
+        rebuildIndexes();
+        
+        // Entries left by a journaled run are replayed even with journaling off now
+        if (config.isJournalEnabled() || new File(config.resolve(COURSES_JOURNAL)).length() > 0) {
+            journal = new Journal<>(config.resolve(COURSES_JOURNAL), CourseCodec.INSTANCE);
+            try {
+                journal.replay(this::putCourse, this::removeCourse);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error replaying course journal: " + e.getMessage());
+            }
+        }
+        LOAD.stop(start);
+    }
+    
+    /**
+     * Journaling is off but a journaled run left entries behind: fold them into the
+     * snapshot and release the journal, so a later journaled run cannot replay them
+     * over newer changes
+     */
+    private void foldLeftoverJournal() {
+        checkpoint();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Error closing course journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+    
+    /**
+     * Open in lazy mode: read only the record directory and leave the full load
+     * until an operation needs it. Not used while journaled changes are pending.
+     */
+    private boolean openLazily() {
+        if (!config.isLazyLoadingEnabled()) {
+            return false;
+        }
+        File journalFile = new File(config.resolve(COURSES_JOURNAL));
+        if (journalFile.length() > 0) {
+            return false;
+        }
+        try {
+            lazyFile = LazyRecordFile.open(coursesFile, CourseCodec.INSTANCE, config.getPageSize(), config.getPageCacheSize());
+        } catch (IOException e) {
+            System.err.println("Error opening courses lazily: " + e.getMessage());
+            lazyFile = null;
+        }
+        if (lazyFile == null) {
+            return false;
+        }
+        materialized = new ConcurrentHashMap<>();
+        return true;
+    }
+    
+    /**
+     * Finish a lazy open by loading everything; courses already handed out keep their identity
+     */
+    void ensureLoaded() {
+        if (lazyFile == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (lazyFile == null) {
+                return;
+            }
+            closeLazyFile();
+            loadCourses();
+            materialized.values().forEach(this::putCourse);
+            materialized = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Point lookup while not fully loaded: decode the record through the page cache.
+     * Holds only the read lock, so lookups run side by side until the full load.
+     */
+    private Course findUnloadedCourse(String courseId) {
+        String key = TextUtil.normalizeKey(courseId);
+        lock.readLock().lock();
+        try {
+            LazyRecordFile<Course> file = lazyFile;
+            if (file == null) {
+                return coursesById.get(key);
+            }
+            Course course = materialized.get(key);
+            if (course == null) {
+                course = file.find(CourseCodec.keyOf(courseId), c -> key.equals(TextUtil.normalizeKey(c.getCourseId())));
+                if (course != null) {
+                    // Of two threads decoding the same course, both hand out the first one stored
+                    Course raced = materialized.putIfAbsent(key, course);
+                    if (raced != null) {
+                        course = raced;
+                    }
+                }
+            }
+            return course;
+        } catch (IOException e) {
+            System.err.println("Error reading course " + courseId + ": " + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+        // The full load needs the write lock, which cannot be taken while holding the read lock
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return coursesById.get(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void closeLazyFile() {
+        LazyRecordFile<Course> file = lazyFile;
+        lazyFile = null;
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                System.err.println("Error closing courses file: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Rebuild all indexes from the loaded list, dropping duplicate IDs
+     */
+    private void rebuildIndexes() {
+        coursesById = new HashMap<>(Math.max(16, courses.size() * 2));
+        secondaryIndexes.forEach(SecondaryIndex::clear);
+        nameSearch.clear();
+        enrollmentView.clear();
+        positions = new HashMap<>(Math.max(16, courses.size() * 2));
+        holes = 0;
+        List<Course> unique = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            String key = TextUtil.normalizeKey(course.getCourseId());
+            if (coursesById.putIfAbsent(key, course) == null) {
+                positions.put(key, unique.size());
+                unique.add(course);
+                for (SecondaryIndex<Course, ?> index : secondaryIndexes) {
+                    index.add(course);
+                }
+                nameSearch.add(course);
+                enrollmentView.add(course);
+            }
+        }
+        courses = unique;
+        invalidateSnapshots();
+    }
+    
+    /**
+     * The handle a course is indexed under: the ordinal of its ID
+     */
+    private static int handleOf(Course course) {
+        return CourseIdPool.intern(course.getCourseId());
+    }
+    
+    /**
+     * Insert or replace a course in the list and its indexes
+     */
+    private void putCourse(Course course) {
+        String key = TextUtil.normalizeKey(course.getCourseId());
+        Course existing = coursesById.put(key, course);
+        if (existing == null) {
+            positions.put(key, courses.size());
+            courses.add(course);
+        } else {
+            if (existing != course) {
+                courses.set(positions.get(key), course);
+            }
+            // Re-index even the same instance, its fields may have been changed in place
+            for (SecondaryIndex<Course, ?> index : secondaryIndexes) {
+                index.remove(existing);
+            }
+            nameSearch.remove(existing);
+            enrollmentView.remove(existing);
+        }
+        for (SecondaryIndex<Course, ?> index : secondaryIndexes) {
+            index.add(course);
+        }
+        nameSearch.add(course);
+        enrollmentView.add(course);
+        invalidateSnapshots();
+    }
+    
+    /**
+     * Remove a course from the list and its indexes
+     */
+    private Course removeCourse(String courseId) {
+        String key = TextUtil.normalizeKey(courseId);
+        Course existing = coursesById.remove(key);
+        if (existing != null) {
+            courses.set(positions.remove(key), null);
+            if (++holes * 4 > courses.size()) {
+                compactCourses();
+            }
+            for (SecondaryIndex<Course, ?> index : secondaryIndexes) {
+                index.remove(existing);
+            }
+            nameSearch.remove(existing);
+            enrollmentView.remove(existing);
+            invalidateSnapshots();
+        }
+        return existing;
+    }
+    
+    /**
+     * Close the holes left by removals, keeping the order of the remaining courses
+     */
+    private void compactCourses() {
+        List<Course> compacted = new ArrayList<>(coursesById.size());
+        for (Course course : courses) {
+            if (course != null) {
+                positions.put(TextUtil.normalizeKey(course.getCourseId()), compacted.size());
+                compacted.add(course);
+            }
+        }
+        courses = compacted;
+        holes = 0;
+    }
+    
+    private void invalidateSnapshots() {
+        snapshot = null;
+        sortedByName = null;
+        if (queryCache != null) {
+            queryCache.invalidate(CacheRegion.COURSES);
+            queryCache.invalidate(CacheRegion.ENROLLMENT);
+        }
+    }
+    
+    private void invalidateEnrollmentQueries() {
+        if (queryCache != null) {
+            queryCache.invalidate(CacheRegion.ENROLLMENT);
+        }
+    }
+    
+    /**
+     * Result of query, from the query cache when it is on. Cached lists are shared,
+     * so they are handed out unmodifiable.
+     */
+    private List<Course> cached(CacheRegion region, String name, Object argument, Supplier<List<Course>> query) {
+        if (queryCache == null) {
+            return query.get();
+        }
+        return queryCache.get(region, name, argument, () -> Collections.unmodifiableList(query.get()));
+    }
+    
+    /**
+     * Hit, miss and eviction counts of the query cache; all zero when it is off
+     */
+    public QueryCache.Stats getQueryCacheStats() {
+        return queryCache == null ? new QueryCache.Stats(0, 0, 0, 0, 0, 0) : queryCache.getStats();
+    }
+    
+    /**
+     * Immutable view of the current courses, rebuilt only after the set of courses changed
+     */
+    private List<Course> snapshot() {
+        List<Course> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            current = snapshot;
+            if (current == null) {
+                List<Course> copy = new ArrayList<>(coursesById.size());
+                for (Course course : courses) {
+                    if (course != null) {
+                        copy.add(course);
+                    }
+                }
+                current = Collections.unmodifiableList(copy);
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Save courses to file. The snapshot is taken inside saveLock, so a save that
+     * finishes later never writes an older list than one that finished earlier.
+     */
+    private boolean saveCourses() {
+        synchronized (saveLock) {
+            try {
+                FileUtil.ensureDirectoryExists(config.getDataDirectory());
+                long start = SAVE.start();
+                List<Course> saved = snapshot();
+                FileUtil.saveRecords(saved, coursesFile, CourseCodec.INSTANCE);
+                SAVE.stop(start);
+                METRICS.addRecordsWritten(saved.size());
+                METRICS.addBytesWritten(new File(coursesFile).length());
+                saveFailed = false;
+                return true;
+            } catch (IOException e) {
+                System.err.println("Error saving courses: " + e.getMessage());
+                saveFailed = true;
+                return false;
+            }
+        }
+    }
+    
+    /**
+     * Journal an added or changed course; called under the lock so that a checkpoint cannot drop it
+     */
+    private void journalCourse(Course course) {
+        if (journal != null) {
+            journal.appendPut(course);
+        }
+    }
+    
+    /**
+     * Journal the removal of a course; called under the write lock
+     */
+    private void journalCourseRemoval(String courseId) {
+        if (journal != null) {
+            journal.appendRemove(courseId);
+        }
+    }
+    
+    /**
+     * Write out journaled mutations according to the configured persistence mode.
+     * Called after the lock is released, so other writers are not held up by the I/O.
+     */
+    private void persist() {
+        if (flusher != null) {
+            flusher.markDirty();
+            return;
+        }
+        if (journal == null) {
+            saveCourses();
+            return;
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println("Error writing course journal: " + e.getMessage());
+            checkpoint();
+            return;
+        }
+        if (journal.getEntryCount() >= config.getCheckpointInterval()) {
+            checkpoint();
+        }
+    }
+    
+    /**
+     * Background flush: one snapshot write, or one journal write and sync, for all pending mutations
+     */
+    private boolean flushPendingWrites() {
+        if (journal == null) {
+            return saveCourses();
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println("Error flushing course journal: " + e.getMessage());
+            return checkpoint();
+        }
+        if (journal.getEntryCount() >= config.getCheckpointInterval()) {
+            checkpoint();
+        }
+        return true;
+    }
+    
+    /**
+     * Write all pending changes now; returns true once they are durable
+     */
+    public boolean flush() {
+        if (flusher != null) {
+            return flusher.flush();
+        }
+        if (journal == null) {
+            // Each mutation has saved the snapshot already, unless that save failed
+            return !saveFailed || saveCourses();
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println("Error flushing course journal: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Wait until every change made so far is durable, or the timeout expires
+     */
+    public boolean awaitDurable(long timeoutMillis) throws InterruptedException {
+        if (flusher != null) {
+            return flusher.awaitDurable(timeoutMillis);
+        }
+        return flush();
+    }
+    
+    /**
+     * Fold the journal into a fresh snapshot so that recovery time stays bounded.
+     * Writers are held off until the journal is reset, so no entry can fall between the two.
+     */
+    public boolean checkpoint() {
+        long start = CHECKPOINT.start();
+        try {
+            if (lazyFile != null) {
+                return true; // Nothing has changed since the snapshot was written
+            }
+            synchronized (saveLock) {
+                lock.writeLock().lock();
+                try {
+                    if (!saveCourses()) {
+                        return false;
+                    }
+                    if (journal != null) {
+                        try {
+                            journal.reset();
+                        } catch (IOException e) {
+                            System.err.println("Error resetting course journal: " + e.getMessage());
+                            return false;
+                        }
+                    }
+                    return true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            CHECKPOINT.stop(start);
+        }
+    }
+    
+    /**
+     * Write out pending changes, checkpoint and release the journal
+     */
+    public void close() {
+        if (flusher != null) {
+            flusher.close();
+        }
+        closeLazyFile();
+        if (journal != null) {
+            checkpoint();
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Error closing course journal: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Register a callback that receives the ID of every course added, imported,
+     * updated or deleted. Seat count changes made through EnrollmentService are not
+     * reported.
+     */
+    public void addCourseListener(Consumer<String> listener) {
+        courseListeners.add(listener);
+    }
+    
+    public void removeCourseListener(Consumer<String> listener) {
+        courseListeners.remove(listener);
+    }
+    
+    private void courseChanged(String courseId) {
+        for (Consumer<String> listener : courseListeners) {
+            listener.accept(courseId);
+        }
+    }
+    
+    // Hooks for EnrollmentService, which logs enrollment changes itself and
+    // applies them here while holding the write lock
+    
+    ReentrantReadWriteLock.WriteLock writeLock() {
+        return lock.writeLock();
+    }
+    
+    ReentrantReadWriteLock.ReadLock readLock() {
+        return lock.readLock();
+    }
+    
+    Course findLoadedCourse(String courseId) {
+        return courseId == null ? null : coursesById.get(TextUtil.normalizeKey(courseId));
+    }
+    
+    /**
+     * Set the seat count in memory and buffer the journal entry without writing it
+     */
+    void applyEnrollmentCount(Course course, int currentEnrollment) {
+        course.setCurrentEnrollment(currentEnrollment);
+        enrollmentView.markChanged(course);
+        invalidateEnrollmentQueries();
+        journalCourse(course);
     }
     
     /**
-     * Save courses to file
+     * Make changes applied through applyEnrollmentCount durable: sync the journal,
+     * or write a snapshot when journaling is off
      */
-    private void saveCourses() {
+    boolean flushApplied() {
+        if (journal == null) {
+            return checkpoint();
+        }
         try {
-            FileUtil.ensureDirectoryExists("data");
-            FileUtil.saveToFile(courses, COURSES_FILE);
+            journal.sync();
+            return true;
         } catch (IOException e) {
-            System.err.println("Error saving courses: " + e.getMessage());
+            System.err.println("Error flushing course journal: " + e.getMessage());
+            return checkpoint();
         }
     }
     
@@ -45,116 +656,264 @@ public class CourseDAO {
      * Add a new course
      */
     public boolean addCourse(Course course) {
-        if (findCourseById(course.getCourseId()) != null) {
-            return false; // Course with this ID already exists
+        long start = ADD.start();
+        try {
+            ensureLoaded();
+            lock.writeLock().lock();
+            try {
+                if (coursesById.containsKey(TextUtil.normalizeKey(course.getCourseId()))) {
+                    return false; // Course with this ID already exists
+                }
+                putCourse(course);
+                journalCourse(course);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            courseChanged(course.getCourseId());
+            persist();
+            return true;
+        } finally {
+            ADD.stop(start);
+        }
+    }
+    
+    /**
+     * Add many courses under one lock acquisition, checking IDs against the existing
+     * courses and the earlier courses of the batch. Nothing is persisted; call
+     * checkpoint() once the whole import is done. Returns one entry per course: null if
+     * it was added, otherwise the reason it was rejected.
+     */
+    public String[] importCourses(List<Course> batch) {
+        long start = IMPORT.start();
+        try {
+            ensureLoaded();
+            String[] rejects = new String[batch.size()];
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < rejects.length; i++) {
+                    Course course = batch.get(i);
+                    if (coursesById.containsKey(TextUtil.normalizeKey(course.getCourseId()))) {
+                        rejects[i] = "duplicate course ID " + course.getCourseId();
+                    } else {
+                        putCourse(course);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            for (int i = 0; i < rejects.length; i++) {
+                if (rejects[i] == null) {
+                    courseChanged(batch.get(i).getCourseId());
+                }
+            }
+            return rejects;
+        } finally {
+            IMPORT.stop(start);
         }
-        courses.add(course);
-        saveCourses();
-        return true;
     }
     
     /**
      * Update an existing course
      */
     public boolean updateCourse(Course updatedCourse) {
-        for (int i = 0; i < courses.size(); i++) {
-            if (courses.get(i).getCourseId().equals(updatedCourse.getCourseId())) {
-                courses.set(i, updatedCourse);
-                saveCourses();
-                return true;
+        long start = UPDATE.start();
+        try {
+            ensureLoaded();
+            lock.writeLock().lock();
+            try {
+                if (!coursesById.containsKey(TextUtil.normalizeKey(updatedCourse.getCourseId()))) {
+                    return false;
+                }
+                putCourse(updatedCourse);
+                journalCourse(updatedCourse);
+            } finally {
+                lock.writeLock().unlock();
             }
+            courseChanged(updatedCourse.getCourseId());
+            persist();
+            return true;
+        } finally {
+            UPDATE.stop(start);
         }
-        return false;
     }
     
     /**
      * Delete a course by ID
      */
     public boolean deleteCourse(String courseId) {
-        boolean removed = courses.removeIf(course -> course.getCourseId().equals(courseId));
-        if (removed) {
-            saveCourses();
+        long start = DELETE.start();
+        try {
+            ensureLoaded();
+            lock.writeLock().lock();
+            try {
+                if (removeCourse(courseId) == null) {
+                    return false;
+                }
+                journalCourseRemoval(courseId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            courseChanged(courseId);
+            persist();
+            return true;
+        } finally {
+            DELETE.stop(start);
         }
-        return removed;
     }
     
     /**
-     * Find course by ID
+     * Find course by ID (case insensitive)
      */
     public Course findCourseById(String courseId) {
-        return courses.stream()
-                .filter(course -> course.getCourseId().equalsIgnoreCase(courseId))
-                .findFirst()
-                .orElse(null);
+        long start = FIND_BY_ID.start();
+        try {
+            if (courseId == null) {
+                return null;
+            }
+            if (lazyFile != null) {
+                return findUnloadedCourse(courseId);
+            }
+            lock.readLock().lock();
+            try {
+                return coursesById.get(TextUtil.normalizeKey(courseId));
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            FIND_BY_ID.stop(start);
+        }
     }
     
     /**
      * Find courses by name (partial match, case insensitive)
      */
     public List<Course> findCoursesByName(String courseName) {
-        String searchName = courseName.toLowerCase();
-        return courses.stream()
-                .filter(course -> course.getCourseName().toLowerCase().contains(searchName))
-                .collect(Collectors.toList());
+        long start = FIND_BY_NAME.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.COURSES, "name", courseName, () -> {
+                lock.readLock().lock();
+                try {
+                    return nameSearch.search(courseName);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        } finally {
+            FIND_BY_NAME.stop(start);
+        }
+    }
+    
+    /**
+     * Up to limit courses whose name starts with prefix (case insensitive), in name order
+     */
+    public List<Course> suggestCoursesByName(String prefix, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return nameSearch.complete(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
     
     /**
      * Find courses by instructor
      */
     public List<Course> findCoursesByInstructor(String instructor) {
-        return courses.stream()
-                .filter(course -> course.getInstructor().equalsIgnoreCase(instructor))
-                .collect(Collectors.toList());
+        long start = FIND_BY_INSTRUCTOR.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.COURSES, "instructor", TextUtil.normalizeKey(instructor), () -> {
+                lock.readLock().lock();
+                try {
+                    return instructorIndex.find(TextUtil.normalizeKey(instructor));
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        } finally {
+            FIND_BY_INSTRUCTOR.stop(start);
+        }
     }
     
     /**
      * Find courses by credit hours
      */
     public List<Course> findCoursesByCredits(int credits) {
-        return courses.stream()
-                .filter(course -> course.getCredits() == credits)
-                .collect(Collectors.toList());
+        ensureLoaded();
+        return cached(CacheRegion.COURSES, "credits", credits, () -> {
+            lock.readLock().lock();
+            try {
+                return creditsIndex.find(credits);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
     }
     
     /**
-     * Get all courses
+     * Get all courses (an unmodifiable snapshot)
      */
     public List<Course> getAllCourses() {
-        return new ArrayList<>(courses);
+        return snapshot();
     }
     
     /**
      * Get available courses (with spots remaining)
      */
     public List<Course> getAvailableCourses() {
-        return courses.stream()
-                .filter(Course::hasAvailableSpots)
-                .collect(Collectors.toList());
+        long start = AVAILABLE.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.ENROLLMENT, "available", null, enrollmentView::availableCourses);
+        } finally {
+            AVAILABLE.stop(start);
+        }
     }
     
     /**
-     * Get courses with enrollment above threshold
+     * Get courses with enrollment above threshold, most enrolled first
      */
     public List<Course> getCoursesWithEnrollmentAbove(int threshold) {
-        return courses.stream()
-                .filter(course -> course.getCurrentEnrollment() >= threshold)
-                .collect(Collectors.toList());
+        ensureLoaded();
+        return cached(CacheRegion.ENROLLMENT, "enrolledAtLeast", threshold, () -> enrollmentView.enrolledAtLeast(threshold));
     }
     
     /**
-     * Get courses by credit range
+     * Get courses by credit range, in credit order
      */
     public List<Course> getCoursesByCreditsRange(int minCredits, int maxCredits) {
-        return courses.stream()
-                .filter(course -> course.getCredits() >= minCredits && course.getCredits() <= maxCredits)
-                .collect(Collectors.toList());
+        long start = CREDITS_RANGE.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.COURSES, "creditsRange", List.of(minCredits, maxCredits), () -> {
+                lock.readLock().lock();
+                try {
+                    return creditsIndex.range(minCredits, maxCredits);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        } finally {
+            CREDITS_RANGE.stop(start);
+        }
     }
     
     /**
      * Get total number of courses
      */
     public int getTotalCourses() {
-        return courses.size();
+        LazyRecordFile<Course> file = lazyFile;
+        if (file != null) {
+            return file.size();
+        }
+        lock.readLock().lock();
+        try {
+            return coursesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
     
     /**
@@ -168,52 +927,94 @@ public class CourseDAO {
      * Increment course enrollment
      */
     public boolean incrementEnrollment(String courseId) {
-        Course course = findCourseById(courseId);
-        if (course != null && course.hasAvailableSpots()) {
-            course.incrementEnrollment();
-            saveCourses();
-            return true;
-        }
-        return false;
+        return changeEnrollment(courseId, true);
     }
     
     /**
      * Decrement course enrollment
      */
     public boolean decrementEnrollment(String courseId) {
-        Course course = findCourseById(courseId);
-        if (course != null && course.getCurrentEnrollment() > 0) {
-            course.decrementEnrollment();
-            saveCourses();
+        return changeEnrollment(courseId, false);
+    }
+    
+    /**
+     * Updates the seat count under the shared read lock, so changes to different (or the
+     * same) courses run in parallel while a checkpoint still cannot slip between the
+     * update and its journal entry. Each entry records the count at append time, so the
+     * last entry for a course always holds its latest count.
+     */
+    private boolean changeEnrollment(String courseId, boolean increment) {
+        long start = CHANGE_ENROLLMENT.start();
+        try {
+            ensureLoaded();
+            lock.readLock().lock();
+            try {
+                Course course = courseId == null ? null : coursesById.get(TextUtil.normalizeKey(courseId));
+                if (course == null || !(increment ? course.incrementEnrollment() : course.decrementEnrollment())) {
+                    return false;
+                }
+                enrollmentView.markChanged(course);
+                invalidateEnrollmentQueries();
+                journalCourse(course);
+            } finally {
+                lock.readLock().unlock();
+            }
+            persist();
             return true;
+        } finally {
+            CHANGE_ENROLLMENT.stop(start);
         }
-        return false;
     }
     
     /**
      * Get courses sorted by enrollment (descending)
      */
     public List<Course> getCoursesSortedByEnrollment() {
-        return courses.stream()
-                .sorted((c1, c2) -> Integer.compare(c2.getCurrentEnrollment(), c1.getCurrentEnrollment()))
-                .collect(Collectors.toList());
+        return getMostEnrolledCourses(Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Get the limit most enrolled courses, most enrolled first
+     */
+    public List<Course> getMostEnrolledCourses(int limit) {
+        long start = MOST_ENROLLED.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.ENROLLMENT, "mostEnrolled", limit, () -> enrollmentView.mostEnrolled(limit));
+        } finally {
+            MOST_ENROLLED.stop(start);
+        }
     }
     
     /**
      * Get courses sorted by name
      */
     public List<Course> getCoursesSortedByName() {
-        return courses.stream()
-                .sorted((c1, c2) -> c1.getCourseName().compareToIgnoreCase(c2.getCourseName()))
-                .collect(Collectors.toList());
+        List<Course> sorted = sortedByName;
+        if (sorted == null) {
+            ensureLoaded();
+            lock.readLock().lock();
+            try {
+                // Taken under the lock, so no add, removal or rename can be missed
+                sorted = Collections.unmodifiableList(nameIndex.ascending());
+                sortedByName = sorted;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return sorted;
     }
     
     /**
      * Get full courses (no available spots)
      */
     public List<Course> getFullCourses() {
-        return courses.stream()
-                .filter(course -> !course.hasAvailableSpots())
-                .collect(Collectors.toList());
+        long start = FULL.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.ENROLLMENT, "full", null, enrollmentView::fullCourses);
+        } finally {
+            FULL.stop(start);
+        }
     }
 }
@@ -0,0 +1,149 @@
+package DAO;
+
+import Models.Course;
+import Utils.CourseIdPool;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course report data kept current as courses change: courses ordered by enrollment,
+ * and the full and the available courses. Maintained by CourseDAO.
+ *
+ * Adds, updates and removals are applied directly, under the DAO write lock. Seat
+ * counts change concurrently under the read lock, so a seat change only marks its
+ * course; marked courses are moved to their new place by the next read. A read costs
+ * in proportion to the courses changed since the previous read plus its result.
+ */
+class CourseEnrollmentView {
+    // Courses whose seat count changed since the last read
+    private final Set<Course> changed = ConcurrentHashMap.newKeySet();
+    // Everything below is guarded by this
+    private final Map<Course, Placement> placements = new IdentityHashMap<>();
+    // Most enrolled first, ties in course ID order of first appearance
+    private final TreeSet<Placement> byEnrollment = new TreeSet<>((a, b) -> a.enrollment != b.enrollment
+            ? Integer.compare(b.enrollment, a.enrollment) : Integer.compare(a.ordinal, b.ordinal));
+    private final TreeMap<Integer, Course> full = new TreeMap<>();
+    private final TreeMap<Integer, Course> available = new TreeMap<>();
+
+    synchronized void add(Course course) {
+        remove(course);
+        Placement placement = new Placement(course, CourseIdPool.intern(course.getCourseId()));
+        placements.put(course, placement);
+        place(placement);
+    }
+
+    synchronized void remove(Course course) {
+        Placement placement = placements.remove(course);
+        if (placement != null) {
+            unplace(placement);
+        }
+    }
+
+    synchronized void clear() {
+        changed.clear();
+        placements.clear();
+        byEnrollment.clear();
+        full.clear();
+        available.clear();
+    }
+
+    /**
+     * Records that a course's seat count changed; safe to call concurrently
+     */
+    void markChanged(Course course) {
+        // A course usually stays marked through many changes: only read the set then
+        if (!changed.contains(course)) {
+            changed.add(course);
+        }
+    }
+
+    /**
+     * Up to limit courses, most enrolled first
+     */
+    synchronized List<Course> mostEnrolled(int limit) {
+        refresh();
+        List<Course> top = new ArrayList<>(Math.min(limit, byEnrollment.size()));
+        for (Placement placement : byEnrollment) {
+            if (top.size() >= limit) {
+                break;
+            }
+            top.add(placement.course);
+        }
+        return top;
+    }
+
+    /**
+     * Courses with at least threshold students, most enrolled first
+     */
+    synchronized List<Course> enrolledAtLeast(int threshold) {
+        refresh();
+        List<Course> courses = new ArrayList<>();
+        for (Placement placement : byEnrollment) {
+            if (placement.enrollment < threshold) {
+                break;
+            }
+            courses.add(placement.course);
+        }
+        return courses;
+    }
+
+    synchronized List<Course> fullCourses() {
+        refresh();
+        return new ArrayList<>(full.values());
+    }
+
+    synchronized List<Course> availableCourses() {
+        refresh();
+        return new ArrayList<>(available.values());
+    }
+
+    /**
+     * Moves every marked course to the place its current seat count calls for
+     */
+    private void refresh() {
+        for (Iterator<Course> it = changed.iterator(); it.hasNext(); ) {
+            Course course = it.next();
+            // Unmark before reading the count: a change made after this read marks it again
+            it.remove();
+            Placement placement = placements.get(course);
+            if (placement != null) {
+                unplace(placement);
+                place(placement);
+            }
+        }
+    }
+
+    private void place(Placement placement) {
+        placement.enrollment = placement.course.getCurrentEnrollment();
+        placement.full = placement.enrollment >= placement.course.getMaxCapacity();
+        byEnrollment.add(placement);
+        (placement.full ? full : available).put(placement.ordinal, placement.course);
+    }
+
+    private void unplace(Placement placement) {
+        byEnrollment.remove(placement);
+        (placement.full ? full : available).remove(placement.ordinal);
+    }
+
+    /**
+     * Where a course sits: the seat count and status it was last placed with
+     */
+    private static final class Placement {
+        final Course course;
+        final int ordinal;
+        int enrollment;
+        boolean full;
+
+        Placement(Course course, int ordinal) {
+            this.course = course;
+            this.ordinal = ordinal;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package DAO;
+
+import Models.Course;
+import Models.Student;
+import Utils.CsvUtil;
+import Utils.StorageConfig;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Streaming bulk import of students or courses from CSV.
+ *
+ * The file is read in chunks of lines that are parsed and validated on a thread
+ * pool; at most two chunks per thread are in flight, so memory stays bounded however
+ * large the file is. Chunks are committed to the DAO in file order, one batch per
+ * chunk, where IDs and emails are checked against existing data. The import is
+ * persisted with a single checkpoint at the end. Bad lines go to a reject file as
+ * line number, reason and the original line.
+ *
+ * Student columns: id,name,email,age,major,gpa
+ * Course columns:  courseId,courseName,credits,instructor,maxCapacity
+ * A first line starting with "id" or "courseId" is taken as a header and skipped.
+ *
+ * Usage: java DAO.CsvImporter students|courses file.csv [data directory]
+ */
+public class CsvImporter {
+    private static final int CHUNK_LINES = 8192;
+
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+    private final int threads;
+
+    public CsvImporter(StudentDAO studentDAO, CourseDAO courseDAO) {
+        this(studentDAO, courseDAO, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CsvImporter(StudentDAO studentDAO, CourseDAO courseDAO, int threads) {
+        this.studentDAO = studentDAO;
+        this.courseDAO = courseDAO;
+        this.threads = Math.max(1, threads);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || !(args[0].equals("students") || args[0].equals("courses"))) {
+            System.err.println("Usage: java DAO.CsvImporter students|courses file.csv [data directory]");
+            System.exit(1);
+        }
+        StorageConfig config = new StorageConfig();
+        config.setJournalEnabled(true);
+        if (args.length > 2) {
+            config.setDataDirectory(args[2]);
+        }
+        StudentDAO studentDAO = new StudentDAO(config);
+        CourseDAO courseDAO = new CourseDAO(config);
+        CsvImporter importer = new CsvImporter(studentDAO, courseDAO);
+        String rejectFile = args[1] + ".rejects.csv";
+        try {
+            ImportReport report = args[0].equals("students")
+                    ? importer.importStudents(args[1], rejectFile)
+                    : importer.importCourses(args[1], rejectFile);
+            System.out.println(report);
+        } catch (IOException e) {
+            System.err.println("Import failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            studentDAO.close();
+            courseDAO.close();
+        }
+    }
+
+    /**
+     * Import students from csvFile; rejected lines are written to rejectFile
+     */
+    public ImportReport importStudents(String csvFile, String rejectFile) throws IOException {
+        ImportReport report = run(csvFile, rejectFile, "id", CsvImporter::parseStudent, studentDAO::importStudents);
+        if (report.getImported() > 0 && !studentDAO.checkpoint()) {
+            throw new IOException("Imported students could not be saved");
+        }
+        return report;
+    }
+
+    /**
+     * Import courses from csvFile; rejected lines are written to rejectFile
+     */
+    public ImportReport importCourses(String csvFile, String rejectFile) throws IOException {
+        ImportReport report = run(csvFile, rejectFile, "courseId", CsvImporter::parseCourse, courseDAO::importCourses);
+        if (report.getImported() > 0 && !courseDAO.checkpoint()) {
+            throw new IOException("Imported courses could not be saved");
+        }
+        return report;
+    }
+
+    static Student parseStudent(List<String> fields) {
+        expectColumns(fields, 6);
+        int id = parseInt(fields.get(0), "id");
+        String name = fields.get(1).trim();
+        String email = fields.get(2).trim();
+        int age = parseInt(fields.get(3), "age");
+        String major = fields.get(4).trim();
+        double gpa = parseDouble(fields.get(5), "gpa");
+        if (id <= 0) {
+            throw new IllegalArgumentException("id must be positive");
+        }
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("missing name");
+        }
+        if (!isValidEmail(email)) {
+            throw new IllegalArgumentException("invalid email " + email);
+        }
+        if (age <= 0 || age > 150) {
+            throw new IllegalArgumentException("age out of range");
+        }
+        if (gpa < 0.0 || gpa > 4.0) {
+            throw new IllegalArgumentException("gpa out of range");
+        }
+        return new Student(name, id, email, age, major, gpa);
+    }
+
+    static Course parseCourse(List<String> fields) {
+        expectColumns(fields, 5);
+        String courseId = fields.get(0).trim();
+        String courseName = fields.get(1).trim();
+        int credits = parseInt(fields.get(2), "credits");
+        String instructor = fields.get(3).trim();
+        int maxCapacity = parseInt(fields.get(4), "maxCapacity");
+        if (courseId.isEmpty() || courseName.isEmpty()) {
+            throw new IllegalArgumentException("missing course ID or name");
+        }
+        if (credits <= 0) {
+            throw new IllegalArgumentException("credits must be positive");
+        }
+        if (maxCapacity <= 0) {
+            throw new IllegalArgumentException("maxCapacity must be positive");
+        }
+        return new Course(courseId, courseName, credits, instructor, maxCapacity);
+    }
+
+    /**
+     * Reads, parses and commits the file chunk by chunk
+     */
+    private <T> ImportReport run(String csvFile, String rejectFile, String headerColumn,
+                                 Function<List<String>, T> parser, Function<List<T>, String[]> commit)
+            throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<ParsedChunk<T>>> inFlight = new ArrayDeque<>();
+        ImportReport report = new ImportReport();
+        long start = System.nanoTime();
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(csvFile), StandardCharsets.UTF_8);
+             RejectWriter rejects = new RejectWriter(rejectFile)) {
+            List<String> lines = new ArrayList<>(CHUNK_LINES);
+            long lineNumber = 0;
+            long chunkStart = 1;
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && isHeader(line, headerColumn)) {
+                    chunkStart = 2;
+                    continue;
+                }
+                lines.add(line);
+                if (lines.size() == CHUNK_LINES) {
+                    inFlight.add(submit(pool, lines, chunkStart, parser));
+                    lines = new ArrayList<>(CHUNK_LINES);
+                    chunkStart = lineNumber + 1;
+                    if (inFlight.size() >= threads * 2) {
+                        commitChunk(inFlight.poll(), commit, rejects, report);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(submit(pool, lines, chunkStart, parser));
+            }
+            while (!inFlight.isEmpty()) {
+                commitChunk(inFlight.poll(), commit, rejects, report);
+            }
+            report.rejectFile = rejects.isUsed() ? rejectFile : null;
+        } finally {
+            pool.shutdownNow();
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private static <T> Future<ParsedChunk<T>> submit(ExecutorService pool, List<String> lines, long firstLine,
+                                                     Function<List<String>, T> parser) {
+        return pool.submit(() -> {
+            ParsedChunk<T> chunk = new ParsedChunk<>(lines, firstLine);
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    chunk.records.add(parser.apply(CsvUtil.parseLine(line)));
+                    chunk.recordLines.add(i);
+                } catch (IllegalArgumentException e) {
+                    chunk.rejects.add(i);
+                    chunk.reasons.add(e.getMessage());
+                }
+            }
+            return chunk;
+        });
+    }
+
+    private static <T> void commitChunk(Future<ParsedChunk<T>> future, Function<List<T>, String[]> commit,
+                                        RejectWriter rejects, ImportReport report) throws IOException {
+        ParsedChunk<T> chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Parsing failed: " + e.getCause(), e.getCause());
+        }
+        for (int i = 0; i < chunk.rejects.size(); i++) {
+            int index = chunk.rejects.get(i);
+            rejects.write(chunk.firstLine + index, chunk.reasons.get(i), chunk.lines.get(index));
+        }
+        String[] reasons = commit.apply(chunk.records);
+        for (int i = 0; i < reasons.length; i++) {
+            if (reasons[i] != null) {
+                int index = chunk.recordLines.get(i);
+                rejects.write(chunk.firstLine + index, reasons[i], chunk.lines.get(index));
+            } else {
+                report.imported++;
+            }
+        }
+        report.rows += chunk.records.size() + chunk.rejects.size();
+        report.rejected = rejects.count;
+    }
+
+    private static boolean isHeader(String line, String headerColumn) {
+        List<String> fields = CsvUtil.parseLine(line);
+        return !fields.isEmpty() && fields.get(0).trim().equalsIgnoreCase(headerColumn);
+    }
+
+    private static boolean isValidEmail(String email) {
+        int at = email.indexOf('@');
+        int dot = email.lastIndexOf('.');
+        return at > 0 && at == email.lastIndexOf('@') && dot > at + 1 && dot < email.length() - 1
+                && email.indexOf(' ') < 0;
+    }
+
+    private static void expectColumns(List<String> fields, int expected) {
+        if (fields.size() != expected) {
+            throw new IllegalArgumentException("expected " + expected + " columns but found " + fields.size());
+        }
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number");
+        }
+    }
+
+    private static double parseDouble(String value, String column) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number");
+        }
+    }
+
+    /**
+     * Lines of one chunk and what parsing made of them
+     */
+    private static final class ParsedChunk<T> {
+        final List<String> lines;
+        final long firstLine;
+        final List<T> records = new ArrayList<>();
+        final List<Integer> recordLines = new ArrayList<>();
+        final List<Integer> rejects = new ArrayList<>();
+        final List<String> reasons = new ArrayList<>();
+
+        ParsedChunk(List<String> lines, long firstLine) {
+            this.lines = lines;
+            this.firstLine = firstLine;
+        }
+    }
+
+    /**
+     * Reject file, created on the first rejected line
+     */
+    private static final class RejectWriter implements AutoCloseable {
+        private final String filename;
+        private BufferedWriter out;
+        private long count;
+
+        RejectWriter(String filename) {
+            this.filename = filename;
+        }
+
+        void write(long lineNumber, String reason, String line) throws IOException {
+            if (out == null) {
+                out = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8);
+                out.write("line,reason,original");
+                out.newLine();
+            }
+            StringBuilder row = new StringBuilder();
+            row.append(lineNumber).append(',');
+            CsvUtil.appendField(row, reason);
+            row.append(',');
+            CsvUtil.appendField(row, line);
+            out.write(row.toString());
+            out.newLine();
+            count++;
+        }
+
+        boolean isUsed() {
+            return out != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Outcome of one import
+     */
+    public static class ImportReport {
+        private long rows;
+        private long imported;
+        private long rejected;
+        private long elapsedNanos;
+        private String rejectFile;
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Path of the reject file, or null if every line was imported
+         */
+        public String getRejectFile() {
+            return rejectFile;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : rows / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d rows: %d imported, %d rejected in %.2f s (%.0f rows/s)%s",
+                    rows, imported, rejected, elapsedNanos / 1e9, getRowsPerSecond(),
+                    rejectFile == null ? "" : ", rejects in " + rejectFile);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package DAO;
+
+import Models.Course;
+import Models.Student;
+import Utils.CsvUtil;
+import Utils.JsonUtil;
+import Utils.StorageConfig;
+import Utils.TextUtil;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Predicate;
+
+/**
+ * Streaming export of students, courses and course rosters as CSV or JSON Lines.
+ *
+ * Records go straight from the DAO's storage to the writer one line at a time
+ * (see StudentDAO.forEachStudent), so memory use does not grow with the data set.
+ * CSV uses the same columns as CsvImporter, so an export can be imported again;
+ * JSON Lines also carries enrollments. Pass a buffered writer; each record is one write.
+ *
+ * Usage: java DAO.DataExporter students|courses|roster csv|jsonl output [options]
+ *   --major M        students with this major
+ *   --min-gpa X      students with a GPA of at least X
+ *   --max-gpa X      students with a GPA of at most X
+ *   --course ID      roster: students enrolled in this course (required)
+ *   --data DIR       data directory
+ */
+public class DataExporter {
+
+    public enum Format {
+        CSV, JSONL
+    }
+
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+
+    public DataExporter(StudentDAO studentDAO, CourseDAO courseDAO) {
+        this.studentDAO = studentDAO;
+        this.courseDAO = courseDAO;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3 || !(args[0].equals("students") || args[0].equals("courses") || args[0].equals("roster"))
+                || !(args[1].equals("csv") || args[1].equals("jsonl"))) {
+            System.err.println("Usage: java DAO.DataExporter students|courses|roster csv|jsonl output "
+                    + "[--major M] [--min-gpa X] [--max-gpa X] [--course ID] [--data DIR]");
+            System.exit(1);
+        }
+        Format format = args[1].equals("csv") ? Format.CSV : Format.JSONL;
+        StorageConfig config = new StorageConfig();
+        Predicate<Student> filter = student -> true;
+        String courseId = null;
+        try {
+            for (int i = 3; i < args.length; i += 2) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                if (value == null) {
+                    throw new IllegalArgumentException(args[i] + " needs a value");
+                }
+                switch (args[i]) {
+                    case "--major": filter = filter.and(byMajor(value)); break;
+                    case "--min-gpa": filter = filter.and(byGpaRange(Double.parseDouble(value), 4.0)); break;
+                    case "--max-gpa": filter = filter.and(byGpaRange(0.0, Double.parseDouble(value))); break;
+                    case "--course": courseId = value; break;
+                    case "--data": config.setDataDirectory(value); break;
+                    default: throw new IllegalArgumentException("unknown option " + args[i]);
+                }
+            }
+            if (args[0].equals("roster") && courseId == null) {
+                throw new IllegalArgumentException("roster needs --course");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Export failed: " + e.getMessage());
+            System.exit(1);
+        }
+
+        StudentDAO studentDAO = new StudentDAO(config);
+        CourseDAO courseDAO = new CourseDAO(config);
+        DataExporter exporter = new DataExporter(studentDAO, courseDAO);
+        Path target = Paths.get(args[2]);
+        Path temp = Paths.get(args[2] + ".tmp");
+        long start = System.nanoTime();
+        try {
+            long exported;
+            try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                if (args[0].equals("courses")) {
+                    exported = exporter.exportCourses(out, format, course -> true);
+                } else if (args[0].equals("roster")) {
+                    exported = exporter.exportRoster(out, format, courseId, filter);
+                } else {
+                    exported = exporter.exportStudents(out, format, filter);
+                }
+            }
+            // Readers of the export never see a half written file
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.printf("%d records exported to %s in %.2f s%n", exported, target, (System.nanoTime() - start) / 1e9);
+        } catch (IOException e) {
+            System.err.println("Export failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            studentDAO.close();
+            courseDAO.close();
+        }
+    }
+
+    /**
+     * Students whose major matches, ignoring case
+     */
+    public static Predicate<Student> byMajor(String major) {
+        String key = TextUtil.normalizeKey(major);
+        return student -> key.equals(TextUtil.normalizeKey(student.getMajor()));
+    }
+
+    /**
+     * Students with minGpa <= GPA <= maxGpa
+     */
+    public static Predicate<Student> byGpaRange(double minGpa, double maxGpa) {
+        return student -> student.getGpa() >= minGpa && student.getGpa() <= maxGpa;
+    }
+
+    /**
+     * Write every student matching the filter; returns the number written
+     */
+    public long exportStudents(Writer out, Format format, Predicate<Student> filter) throws IOException {
+        RecordWriter writer = new RecordWriter(out, format);
+        writer.header("id,name,email,age,major,gpa");
+        try {
+            return studentDAO.forEachStudent(filter, writer::student);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Write the students enrolled in a course that match the filter; returns the number written
+     */
+    public long exportRoster(Writer out, Format format, String courseId, Predicate<Student> filter) throws IOException {
+        RecordWriter writer = new RecordWriter(out, format);
+        writer.header("id,name,email,age,major,gpa");
+        long exported = 0;
+        try {
+            // A roster is bounded by the course capacity, so copying it is cheap
+            for (Student student : studentDAO.getStudentsEnrolledInCourse(courseId)) {
+                if (filter.test(student)) {
+                    writer.student(student);
+                    exported++;
+                }
+            }
+            return exported;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Write every course matching the filter; returns the number written
+     */
+    public long exportCourses(Writer out, Format format, Predicate<Course> filter) throws IOException {
+        RecordWriter writer = new RecordWriter(out, format);
+        writer.header("courseId,courseName,credits,instructor,maxCapacity");
+        long exported = 0;
+        try {
+            for (Course course : courseDAO.getAllCourses()) {
+                if (filter.test(course)) {
+                    writer.course(course);
+                    exported++;
+                }
+            }
+            return exported;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Formats records into one reused line buffer
+     */
+    private static final class RecordWriter {
+        private final Writer out;
+        private final Format format;
+        private final StringBuilder line = new StringBuilder(256);
+
+        RecordWriter(Writer out, Format format) {
+            this.out = out;
+            this.format = format;
+        }
+
+        void header(String columns) throws IOException {
+            if (format == Format.CSV) {
+                out.write(columns);
+                out.write('\n');
+            }
+        }
+
+        void student(Student student) {
+            line.setLength(0);
+            if (format == Format.CSV) {
+                line.append(student.getId()).append(',');
+                CsvUtil.appendField(line, student.getName());
+                line.append(',');
+                CsvUtil.appendField(line, student.getEmail());
+                line.append(',').append(student.getAge()).append(',');
+                CsvUtil.appendField(line, student.getMajor());
+                line.append(',').append(student.getGpa());
+            } else {
+                JsonUtil.appendStudent(line, student);
+            }
+            writeLine();
+        }
+
+        void course(Course course) {
+            line.setLength(0);
+            if (format == Format.CSV) {
+                CsvUtil.appendField(line, course.getCourseId());
+                line.append(',');
+                CsvUtil.appendField(line, course.getCourseName());
+                line.append(',').append(course.getCredits()).append(',');
+                CsvUtil.appendField(line, course.getInstructor());
+                line.append(',').append(course.getMaxCapacity());
+            } else {
+                JsonUtil.appendCourse(line, course);
+            }
+            writeLine();
+        }
+
+        private void writeLine() {
+            line.append('\n');
+            try {
+                out.append(line);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
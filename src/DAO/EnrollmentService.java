@@ -0,0 +1,370 @@
+package DAO;
+
+import Models.Course;
+import Models.Student;
+import Utils.Journal;
+import Utils.RecordCodec;
+import Utils.RecordReader;
+import Utils.RecordWriter;
+import Utils.StorageConfig;
+import Utils.WriteBehindFlusher;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enrolls and drops students as one atomic change across StudentDAO and CourseDAO.
+ *
+ * A change is validated, appended as a single entry to the enrollment log and
+ * applied to both DAOs in memory while both DAO write locks are held. The log is
+ * synced after the locks are released, so readers and other changes never wait on
+ * the disk, and one sync covers every entry appended by then. The DAOs buffer their
+ * own journal entries for it without writing them, so a change costs one write
+ * instead of two. If the sync fails the change stays applied and is made durable by
+ * a checkpoint instead. checkpoint() folds the log away by flushing both DAOs; it
+ * runs every checkpointInterval changes and on close.
+ *
+ * On startup the log is replayed after the DAOs have loaded. Entries state the
+ * outcome ("enrolled", "seat count is n") rather than a delta, so replaying a change
+ * the DAOs already hold is harmless. While entries are pending the log owns student
+ * course lists and course seat counts: changes made to those directly through the
+ * DAOs in that window can be overwritten by a replay.
+ *
+ * Seats are taken through a SeatReservationEngine before any lock is acquired, so
+ * a rush on a full course is turned away by a few atomic reads.
+ *
+ * Students and courses that may have enrollments are deleted through
+ * deleteStudent() and deleteCourse(), which drop those enrollments first.
+ */
+public class EnrollmentService {
+    private static final String ENROLLMENT_LOG = "enrollments.journal";
+    private final StudentDAO studentDAO;
+    private final CourseDAO courseDAO;
+    private final StorageConfig config;
+    private final Journal<EnrollmentChange> log;
+    private final SeatReservationEngine seats;
+    private WriteBehindFlusher flusher;
+
+    public EnrollmentService(StudentDAO studentDAO, CourseDAO courseDAO, StorageConfig config) {
+        this.studentDAO = studentDAO;
+        this.courseDAO = courseDAO;
+        this.config = config;
+        this.log = new Journal<>(config.resolve(ENROLLMENT_LOG), EnrollmentChangeCodec.INSTANCE);
+        recover();
+        this.seats = new SeatReservationEngine(courseDAO);
+
+        if (config.isWriteBehindEnabled()) {
+            flusher = new WriteBehindFlusher("enrollment-flusher", this::flushPendingWrites,
+                    config.getFlushWindowMillis(), config.getFlushMaxMutations());
+        }
+    }
+
+    /**
+     * Re-apply changes left in the log by a previous run, then fold them into the DAOs
+     */
+    private void recover() {
+        List<EnrollmentChange> changes = new ArrayList<>();
+        try {
+            log.replay(changes::add, key -> { });
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error replaying enrollment log: " + e.getMessage());
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        studentDAO.ensureLoaded();
+        courseDAO.ensureLoaded();
+        studentDAO.writeLock().lock();
+        courseDAO.writeLock().lock();
+        try {
+            for (EnrollmentChange change : changes) {
+                Student student = studentDAO.findLoadedStudent(change.studentId);
+                if (student != null && student.isEnrolledInCourse(change.courseId) != change.enrolled) {
+                    studentDAO.applyEnrollment(student, change.courseId, change.enrolled);
+                }
+                Course course = courseDAO.findLoadedCourse(change.courseId);
+                if (course != null && course.getCurrentEnrollment() != change.currentEnrollment) {
+                    courseDAO.applyEnrollmentCount(course, change.currentEnrollment);
+                }
+            }
+        } finally {
+            courseDAO.writeLock().unlock();
+            studentDAO.writeLock().unlock();
+        }
+        checkpoint();
+    }
+
+    /**
+     * Enroll a student in a course with a free seat
+     */
+    public boolean enroll(int studentId, String courseId) {
+        SeatReservationEngine.SeatCounter reserved = seats.reserve(courseId);
+        if (reserved == null) {
+            return false;
+        }
+        if (!change(studentId, courseId, true, reserved)) {
+            seats.cancel(reserved);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drop a student from a course and release the seat
+     */
+    public boolean drop(int studentId, String courseId) {
+        return change(studentId, courseId, false, null);
+    }
+
+    /**
+     * Seat counters used to admit enrollments; they follow course changes made through the CourseDAO
+     */
+    public SeatReservationEngine getSeatReservationEngine() {
+        return seats;
+    }
+
+    /**
+     * Delete a student after dropping all of its enrollments, so no course keeps counting it
+     */
+    public boolean deleteStudent(int studentId) {
+        studentDAO.ensureLoaded();
+        courseDAO.ensureLoaded();
+        // Held until the student is gone, so no enrollment can be made between the drops and the delete
+        synchronized (this) {
+            studentDAO.writeLock().lock();
+            courseDAO.writeLock().lock();
+            try {
+                Student student = studentDAO.findLoadedStudent(studentId);
+                if (student == null) {
+                    return false;
+                }
+                for (String courseId : student.getEnrolledCourses()) {
+                    Course course = courseDAO.findLoadedCourse(courseId);
+                    if (course != null) {
+                        apply(student, course, false, null);
+                    }
+                }
+            } finally {
+                courseDAO.writeLock().unlock();
+                studentDAO.writeLock().unlock();
+            }
+            // The drops must be durable before the delete, or a crash could restore their seats
+            syncLog();
+            return studentDAO.deleteStudent(studentId);
+        }
+    }
+
+    /**
+     * Delete a course after dropping every student enrolled in it
+     */
+    public boolean deleteCourse(String courseId) {
+        studentDAO.ensureLoaded();
+        courseDAO.ensureLoaded();
+        synchronized (this) {
+            studentDAO.writeLock().lock();
+            courseDAO.writeLock().lock();
+            try {
+                Course course = courseDAO.findLoadedCourse(courseId);
+                if (course == null) {
+                    return false;
+                }
+                for (Student student : studentDAO.findLoadedRoster(courseId)) {
+                    apply(student, course, false, null);
+                }
+            } finally {
+                courseDAO.writeLock().unlock();
+                studentDAO.writeLock().unlock();
+            }
+            syncLog();
+            return courseDAO.deleteCourse(courseId);
+        }
+    }
+
+    /**
+     * Applies one change; the seat is settled with the engine in the same critical
+     * section, reserved being the counter an enrollment took its seat from
+     */
+    private boolean change(int studentId, String courseId, boolean enrolled,
+                           SeatReservationEngine.SeatCounter reserved) {
+        studentDAO.ensureLoaded();
+        courseDAO.ensureLoaded();
+        // Excludes checkpoint(), which must not reset the log between an append and its apply
+        synchronized (this) {
+            // Always student before course, so two services can never deadlock
+            studentDAO.writeLock().lock();
+            courseDAO.writeLock().lock();
+            try {
+                Student student = studentDAO.findLoadedStudent(studentId);
+                Course course = courseDAO.findLoadedCourse(courseId);
+                if (student == null || course == null || student.isEnrolledInCourse(courseId) == enrolled) {
+                    return false;
+                }
+                if (enrolled && !course.hasAvailableSpots()) {
+                    return false; // Only reachable if the seat counter drifted from the course record
+                }
+                apply(student, course, enrolled, reserved);
+            } finally {
+                courseDAO.writeLock().unlock();
+                studentDAO.writeLock().unlock();
+            }
+        }
+
+        if (flusher != null) {
+            flusher.markDirty();
+        } else {
+            syncLog();
+        }
+        if (log.getEntryCount() >= config.getCheckpointInterval()) {
+            checkpoint();
+        }
+        return true;
+    }
+
+    /**
+     * Logs a validated change and applies it to both DAOs and the seat counters;
+     * call holding this monitor and both write locks
+     */
+    private void apply(Student student, Course course, boolean enrolled,
+                       SeatReservationEngine.SeatCounter reserved) {
+        int seatCount = Math.max(0, course.getCurrentEnrollment() + (enrolled ? 1 : -1));
+        EnrollmentChange change = new EnrollmentChange(student.getId(), course.getCourseId(), enrolled, seatCount);
+        log.appendPut(change);
+        studentDAO.applyEnrollment(student, change.courseId, enrolled);
+        courseDAO.applyEnrollmentCount(course, seatCount);
+        if (enrolled) {
+            seats.confirm(change.courseId, reserved);
+        } else {
+            seats.release(change.courseId);
+        }
+    }
+
+    /**
+     * The durable write of the changes applied so far, run without any lock held: one log
+     * sync, or a checkpoint of both DAOs if the sync fails
+     */
+    private boolean syncLog() {
+        try {
+            log.sync();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing enrollment log: " + e.getMessage());
+            return checkpoint();
+        }
+    }
+
+    /**
+     * Background flush: one log write and sync for all changes made within the window
+     */
+    private boolean flushPendingWrites() {
+        return syncLog();
+    }
+
+    /**
+     * Write all pending changes now; returns true once they are durable
+     */
+    public boolean flush() {
+        if (flusher != null) {
+            return flusher.flush();
+        }
+        return syncLog();
+    }
+
+    /**
+     * Wait until every change made so far is durable, or the timeout expires
+     */
+    public boolean awaitDurable(long timeoutMillis) throws InterruptedException {
+        if (flusher != null) {
+            return flusher.awaitDurable(timeoutMillis);
+        }
+        return flush();
+    }
+
+    /**
+     * Make every logged change durable in the DAOs' own files, then empty the log
+     */
+    public synchronized boolean checkpoint() {
+        if (!studentDAO.flushApplied() || !courseDAO.flushApplied()) {
+            return false;
+        }
+        try {
+            log.reset();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error resetting enrollment log: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Fold the log into the DAOs and release it; call before closing the DAOs
+     */
+    public void close() {
+        if (flusher != null) {
+            flusher.close();
+        }
+        seats.close();
+        checkpoint();
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.err.println("Error closing enrollment log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One logged enrollment change and the seat count it leaves the course with
+     */
+    private static final class EnrollmentChange {
+        final int studentId;
+        final String courseId;
+        final boolean enrolled;
+        final int currentEnrollment;
+
+        EnrollmentChange(int studentId, String courseId, boolean enrolled, int currentEnrollment) {
+            this.studentId = studentId;
+            this.courseId = courseId;
+            this.enrolled = enrolled;
+            this.currentEnrollment = currentEnrollment;
+        }
+    }
+
+    /**
+     * Version 1: studentId, enrolled flag, seat count, courseId
+     */
+    private static final class EnrollmentChangeCodec implements RecordCodec<EnrollmentChange> {
+        static final EnrollmentChangeCodec INSTANCE = new EnrollmentChangeCodec();
+
+        @Override
+        public String recordType() {
+            return "EnrollmentChange";
+        }
+
+        @Override
+        public int schemaVersion() {
+            return 1;
+        }
+
+        @Override
+        public void encode(EnrollmentChange change, RecordWriter out) {
+            out.writeInt(change.studentId);
+            out.writeByte(change.enrolled ? 1 : 0);
+            out.writeInt(change.currentEnrollment);
+            out.writeString(change.courseId);
+        }
+
+        @Override
+        public EnrollmentChange decode(RecordReader in, int schemaVersion) {
+            int studentId = in.readInt();
+            boolean enrolled = in.readByte() != 0;
+            int currentEnrollment = in.readInt();
+            String courseId = in.readString();
+            return new EnrollmentChange(studentId, courseId, enrolled, currentEnrollment);
+        }
+
+        @Override
+        public long directoryKey(EnrollmentChange change) {
+            return change.studentId;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package DAO;
+
+import Models.MajorStats;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Student count and GPA sum per major, kept current by StudentDAO on every mutation
+ * and guarded by its lock. A student's contribution is removed with the major key and
+ * GPA it was added with, so students changed in place are still accounted correctly.
+ */
+class MajorStatsView {
+    // Normalized major -> running totals, in major order
+    private final TreeMap<String, Totals> totals = new TreeMap<>();
+
+    void add(String majorKey, String major, double gpa) {
+        if (majorKey == null) {
+            return;
+        }
+        Totals entry = totals.get(majorKey);
+        if (entry == null) {
+            entry = new Totals(major);
+            totals.put(majorKey, entry);
+        }
+        entry.students++;
+        entry.gpaSum += gpa;
+    }
+
+    void remove(String majorKey, double gpa) {
+        Totals entry = majorKey == null ? null : totals.get(majorKey);
+        if (entry == null) {
+            return;
+        }
+        if (--entry.students == 0) {
+            totals.remove(majorKey);
+        } else {
+            entry.gpaSum -= gpa;
+        }
+    }
+
+    void clear() {
+        totals.clear();
+    }
+
+    /**
+     * One summary per major, in major order
+     */
+    List<MajorStats> summaries() {
+        List<MajorStats> summaries = new ArrayList<>(totals.size());
+        for (Totals entry : totals.values()) {
+            summaries.add(new MajorStats(entry.major, entry.students, entry.gpaSum / entry.students));
+        }
+        return summaries;
+    }
+
+    /**
+     * Summary of one major, or null if it has no students
+     */
+    MajorStats summary(String majorKey) {
+        Totals entry = majorKey == null ? null : totals.get(majorKey);
+        return entry == null ? null : new MajorStats(entry.major, entry.students, entry.gpaSum / entry.students);
+    }
+
+    private static final class Totals {
+        // Spelling of the first student seen with this major
+        final String major;
+        int students;
+        double gpaSum;
+
+        Totals(String major) {
+            this.major = major;
+        }
+    }
+}
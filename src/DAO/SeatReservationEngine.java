@@ -0,0 +1,250 @@
+package DAO;
+
+import Models.Course;
+import Utils.CourseIdPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Admission control for course seats that stays fast when thousands of clients
+ * hit the same course.
+ *
+ * Each course has a counter of free seats split into stripes; every stripe holds a
+ * share of the free seats on its own cache line. A thread takes a seat with a
+ * compare-and-set on the stripe it hashes to and only looks at the other stripes
+ * once its own is empty. Each seat is taken out of exactly one stripe, so a course
+ * can never be oversold, and threads that hash to different stripes never contend.
+ *
+ * Counters are created on first use from the course record (maxCapacity minus
+ * currentEnrollment) and kept by CourseIdPool ordinal, so however a request spells
+ * a course ID it maps to the one counter, and IDs of unknown courses are never kept. From then on every seat change for that course must go through
+ * the engine. The engine listens to the CourseDAO and drops a course's counter
+ * whenever the course is added, updated or deleted; close() stops listening.
+ *
+ * A counter is read from the record and published under the CourseDAO read lock, and
+ * EnrollmentService settles each seat under the write lock in the same critical
+ * section that changes the record. So every counter either predates a record change,
+ * and is adjusted for it, or was read after it and already includes it.
+ */
+public class SeatReservationEngine {
+    // Ints per stripe: one 64-byte cache line, so neighbouring stripes never share a line
+    private static final int STRIPE_WIDTH = 16;
+    // Stripes only pay off with enough seats to spread around
+    private static final int MIN_SEATS_PER_STRIPE = 8;
+
+    private final CourseDAO courseDAO;
+    private final int maxStripes;
+    // Counter per course ordinal, null until first use; replaced by a larger copy under this monitor
+    private volatile AtomicReferenceArray<SeatCounter> counters = new AtomicReferenceArray<>(64);
+    private final Consumer<String> courseListener = this::forget;
+
+    public SeatReservationEngine(CourseDAO courseDAO) {
+        this(courseDAO, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2));
+    }
+
+    public SeatReservationEngine(CourseDAO courseDAO, int maxStripes) {
+        this.courseDAO = courseDAO;
+        this.maxStripes = Math.max(1, maxStripes);
+        courseDAO.addCourseListener(courseListener);
+    }
+
+    /**
+     * Stops following course changes; the engine must not be used afterwards
+     */
+    public void close() {
+        courseDAO.removeCourseListener(courseListener);
+        synchronized (this) {
+            counters = new AtomicReferenceArray<>(counters.length());
+        }
+    }
+
+    /**
+     * Takes a seat; returns false if the course is full or does not exist
+     */
+    public boolean tryReserve(String courseId) {
+        return reserve(courseId) != null;
+    }
+
+    /**
+     * Takes a seat and returns the counter it came from, or null if the course is full or
+     * does not exist. Hand the counter to confirm() once the enrollment is in the course
+     * record, or to cancel() if it never gets there.
+     */
+    SeatCounter reserve(String courseId) {
+        SeatCounter counter = counter(courseId);
+        return counter != null && counter.tryTake() ? counter : null;
+    }
+
+    /**
+     * Settles a reserved seat after the enrollment reached the course record; call
+     * holding the CourseDAO write lock. A counter that replaced the reserving one was
+     * read from the record before the enrollment, so it still counts the seat as free.
+     */
+    void confirm(String courseId, SeatCounter reserved) {
+        SeatCounter current = existing(courseId);
+        if (current != null && current != reserved) {
+            current.tryTake();
+        }
+    }
+
+    /**
+     * Gives back a seat reserved for an enrollment that did not happen. If the counter
+     * was replaced since, the new one never counted the seat as taken.
+     */
+    void cancel(SeatCounter reserved) {
+        reserved.giveBack();
+    }
+
+    /**
+     * Gives back the seat of a dropped student after the drop reached the course record;
+     * call holding the CourseDAO write lock. Without a counter there is nothing to do:
+     * the next one is read from the record, which has the seat free already.
+     */
+    void release(String courseId) {
+        SeatCounter counter = existing(courseId);
+        if (counter != null) {
+            counter.giveBack();
+        }
+    }
+
+    /**
+     * Seats currently free, or 0 for an unknown course
+     */
+    public int getAvailableSeats(String courseId) {
+        SeatCounter counter = counter(courseId);
+        return counter == null ? 0 : counter.available();
+    }
+
+    /**
+     * Drops the counter of a course so it is rebuilt from the course record on next use
+     */
+    public void forget(String courseId) {
+        int ordinal = courseId == null ? -1 : CourseIdPool.find(courseId);
+        if (ordinal >= 0) {
+            synchronized (this) {
+                AtomicReferenceArray<SeatCounter> current = counters;
+                if (ordinal < current.length()) {
+                    current.set(ordinal, null);
+                }
+            }
+        }
+    }
+
+    private SeatCounter counter(String courseId) {
+        if (courseId == null) {
+            return null;
+        }
+        int ordinal = CourseIdPool.find(courseId);
+        SeatCounter counter = ordinal < 0 ? null : existing(ordinal);
+        if (counter != null) {
+            return counter;
+        }
+        // Interns every course it loads, so an ID still unknown afterwards has no course
+        courseDAO.ensureLoaded();
+        // No enrollment can change the record between reading it and publishing the counter
+        courseDAO.readLock().lock();
+        try {
+            Course course = courseDAO.findLoadedCourse(courseId);
+            if (course == null) {
+                return null;
+            }
+            return counterFor(CourseIdPool.intern(course.getCourseId()), course);
+        } finally {
+            courseDAO.readLock().unlock();
+        }
+    }
+
+    /**
+     * Publishes a counter read from the course record unless another thread did first
+     */
+    private synchronized SeatCounter counterFor(int ordinal, Course course) {
+        AtomicReferenceArray<SeatCounter> current = counters;
+        if (ordinal >= current.length()) {
+            AtomicReferenceArray<SeatCounter> grown = new AtomicReferenceArray<>(Math.max(ordinal + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            counters = current = grown;
+        }
+        SeatCounter counter = current.get(ordinal);
+        if (counter == null) {
+            int free = Math.max(0, course.getMaxCapacity() - course.getCurrentEnrollment());
+            counter = new SeatCounter(free, stripesFor(course.getMaxCapacity()));
+            current.set(ordinal, counter);
+        }
+        return counter;
+    }
+
+    /**
+     * The counter of a course if it has one; never reads the record
+     */
+    private SeatCounter existing(String courseId) {
+        int ordinal = CourseIdPool.find(courseId);
+        return ordinal < 0 ? null : existing(ordinal);
+    }
+
+    private SeatCounter existing(int ordinal) {
+        AtomicReferenceArray<SeatCounter> current = counters;
+        return ordinal < current.length() ? current.get(ordinal) : null;
+    }
+
+    private int stripesFor(int capacity) {
+        return Math.max(1, Math.min(maxStripes, capacity / MIN_SEATS_PER_STRIPE));
+    }
+
+    /**
+     * Free seats of one course, spread over padded stripes
+     */
+    static final class SeatCounter {
+        private final AtomicIntegerArray free;
+        private final int stripes;
+
+        SeatCounter(int seats, int stripes) {
+            this.stripes = stripes;
+            // One spare line in front keeps stripe 0 off the array header
+            this.free = new AtomicIntegerArray((stripes + 1) * STRIPE_WIDTH);
+            for (int i = 0; i < stripes; i++) {
+                free.set(slot(i), seats / stripes + (i < seats % stripes ? 1 : 0));
+            }
+        }
+
+        boolean tryTake() {
+            int home = homeStripe();
+            for (int n = 0; n < stripes; n++) {
+                int slot = slot((home + n) % stripes);
+                int seats;
+                while ((seats = free.get(slot)) > 0) {
+                    if (free.compareAndSet(slot, seats, seats - 1)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        void giveBack() {
+            free.incrementAndGet(slot(homeStripe()));
+        }
+
+        int available() {
+            int total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += free.get(slot(i));
+            }
+            return total;
+        }
+
+        private int homeStripe() {
+            if (stripes == 1) {
+                return 0;
+            }
+            long id = Thread.currentThread().getId();
+            return (int) ((id * 0x9E3779B97F4A7C15L) >>> 33) % stripes;
+        }
+
+        private static int slot(int stripe) {
+            return (stripe + 1) * STRIPE_WIDTH;
+        }
+    }
+}
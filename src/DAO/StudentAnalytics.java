@@ -0,0 +1,295 @@
+package DAO;
+
+import Models.Student;
+import Utils.TextUtil;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-of-term analytics over the student body, computed in parallel on a fork-join
+ * pool: GPA distribution per major, age cohorts and percentiles of enrollment load
+ * (courses per student).
+ *
+ * The student list is split in half until chunks are small enough; each chunk fills
+ * an Accumulator of plain counting arrays, and halves are merged by adding the arrays
+ * together, so no boxed values or shared state are touched per student. Majors are
+ * numbered on first sight through a small shared dictionary that each chunk caches.
+ *
+ * Usage: new StudentAnalytics(parallelism).analyze(studentDAO.getAllStudents())
+ */
+public class StudentAnalytics {
+    // GPA histogram: bins of 0.25 from 0.0, the last one also takes 4.0
+    public static final double GPA_BIN_WIDTH = 0.25;
+    public static final int GPA_BINS = 16;
+    // Ages and loads above these are counted in the last slot
+    public static final int MAX_AGE = 127;
+    public static final int MAX_LOAD = 63;
+    // Below this many students a chunk is not split further
+    private static final int MIN_CHUNK = 4096;
+
+    private final ForkJoinPool pool;
+
+    public StudentAnalytics() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public StudentAnalytics(int parallelism) {
+        this(new ForkJoinPool(parallelism));
+    }
+
+    public StudentAnalytics(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Analyze students, typically the snapshot from StudentDAO.getAllStudents()
+     */
+    public TermReport analyze(List<Student> students) {
+        MajorDictionary majors = new MajorDictionary();
+        int chunk = Math.max(MIN_CHUNK, students.size() / (pool.getParallelism() * 8));
+        Accumulator total = pool.invoke(new ChunkTask(students, 0, students.size(), chunk, majors));
+        return new TermReport(majors.names(), total);
+    }
+
+    /**
+     * Stops the pool if it was created by this instance
+     */
+    public void close() {
+        if (pool != ForkJoinPool.commonPool()) {
+            pool.shutdown();
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveTask<Accumulator> {
+        private static final long serialVersionUID = 1L;
+        private final List<Student> students;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final MajorDictionary majors;
+
+        ChunkTask(List<Student> students, int from, int to, int chunk, MajorDictionary majors) {
+            this.students = students;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.majors = majors;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= chunk) {
+                Accumulator accumulator = new Accumulator();
+                // Raw spelling -> major number, so the shared dictionary is hit once per spelling
+                Map<String, Integer> seen = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    Student student = students.get(i);
+                    String major = student.getMajor();
+                    int ordinal = -1;
+                    if (major != null) {
+                        Integer known = seen.get(major);
+                        if (known == null) {
+                            known = majors.ordinalOf(major);
+                            seen.put(major, known);
+                        }
+                        ordinal = known;
+                    }
+                    accumulator.add(ordinal, student.getGpa(), student.getAge(), student.getTotalEnrolledCourses());
+                }
+                return accumulator;
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(students, from, middle, chunk, majors);
+            left.fork();
+            Accumulator right = new ChunkTask(students, middle, to, chunk, majors).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Numbers majors by normalized name, keeping the first spelling seen for display
+     */
+    private static final class MajorDictionary {
+        private final ConcurrentHashMap<String, Integer> ordinals = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<Integer, String> names = new ConcurrentHashMap<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        int ordinalOf(String major) {
+            return ordinals.computeIfAbsent(TextUtil.normalizeKey(major), key -> {
+                int ordinal = next.getAndIncrement();
+                names.put(ordinal, major);
+                return ordinal;
+            });
+        }
+
+        String[] names() {
+            String[] result = new String[names.size()];
+            names.forEach((ordinal, name) -> result[ordinal] = name);
+            return result;
+        }
+    }
+
+    /**
+     * Mergeable counts for one chunk of students
+     */
+    static final class Accumulator {
+        // Per major: student count, GPA sum, then GPA_BINS histogram counts
+        long[] majorCounts = new long[0];
+        double[] majorGpaSums = new double[0];
+        long[] gpaBins = new long[0];
+        final long[] ages = new long[MAX_AGE + 1];
+        final long[] loads = new long[MAX_LOAD + 1];
+        long students;
+
+        void add(int major, double gpa, int age, int load) {
+            students++;
+            ages[Math.max(0, Math.min(age, MAX_AGE))]++;
+            loads[Math.min(load, MAX_LOAD)]++;
+            if (major < 0) {
+                return;
+            }
+            if (major >= majorCounts.length) {
+                grow(major + 1);
+            }
+            majorCounts[major]++;
+            majorGpaSums[major] += gpa;
+            gpaBins[major * GPA_BINS + gpaBin(gpa)]++;
+        }
+
+        Accumulator merge(Accumulator other) {
+            if (other.majorCounts.length > majorCounts.length) {
+                grow(other.majorCounts.length);
+            }
+            for (int i = 0; i < other.majorCounts.length; i++) {
+                majorCounts[i] += other.majorCounts[i];
+                majorGpaSums[i] += other.majorGpaSums[i];
+            }
+            for (int i = 0; i < other.gpaBins.length; i++) {
+                gpaBins[i] += other.gpaBins[i];
+            }
+            for (int i = 0; i < ages.length; i++) {
+                ages[i] += other.ages[i];
+            }
+            for (int i = 0; i < loads.length; i++) {
+                loads[i] += other.loads[i];
+            }
+            students += other.students;
+            return this;
+        }
+
+        private void grow(int majors) {
+            int size = Math.max(majors, majorCounts.length * 2);
+            majorCounts = Arrays.copyOf(majorCounts, size);
+            majorGpaSums = Arrays.copyOf(majorGpaSums, size);
+            gpaBins = Arrays.copyOf(gpaBins, size * GPA_BINS);
+        }
+
+        private static int gpaBin(double gpa) {
+            int bin = (int) (gpa / GPA_BIN_WIDTH);
+            return Math.max(0, Math.min(bin, GPA_BINS - 1));
+        }
+    }
+
+    /**
+     * Outcome of one analysis
+     */
+    public static class TermReport {
+        private final String[] majors;
+        private final Accumulator totals;
+
+        TermReport(String[] majors, Accumulator totals) {
+            this.majors = majors;
+            this.totals = totals;
+        }
+
+        public long getTotalStudents() {
+            return totals.students;
+        }
+
+        /**
+         * Majors seen, in order of first appearance
+         */
+        public List<String> getMajors() {
+            List<String> result = new ArrayList<>(majors.length);
+            for (String major : majors) {
+                result.add(major);
+            }
+            return result;
+        }
+
+        public long getStudentCount(String major) {
+            int ordinal = find(major);
+            return ordinal < 0 ? 0 : totals.majorCounts[ordinal];
+        }
+
+        public double getAverageGpa(String major) {
+            int ordinal = find(major);
+            return ordinal < 0 || totals.majorCounts[ordinal] == 0 ? 0.0
+                    : totals.majorGpaSums[ordinal] / totals.majorCounts[ordinal];
+        }
+
+        /**
+         * Students of a major per GPA bin; bin i covers [i * GPA_BIN_WIDTH, (i + 1) * GPA_BIN_WIDTH)
+         */
+        public long[] getGpaHistogram(String major) {
+            int ordinal = find(major);
+            if (ordinal < 0) {
+                return new long[GPA_BINS];
+            }
+            return Arrays.copyOfRange(totals.gpaBins, ordinal * GPA_BINS, (ordinal + 1) * GPA_BINS);
+        }
+
+        /**
+         * Students per age in years, index = age; MAX_AGE also counts anyone older
+         */
+        public long[] getAgeCohorts() {
+            return totals.ages.clone();
+        }
+
+        /**
+         * Students aged minAge to maxAge inclusive
+         */
+        public long countAged(int minAge, int maxAge) {
+            long count = 0;
+            for (int age = Math.max(0, minAge); age <= Math.min(maxAge, MAX_AGE); age++) {
+                count += totals.ages[age];
+            }
+            return count;
+        }
+
+        /**
+         * Smallest course load that at least percentile percent of students do not exceed
+         */
+        public int getLoadPercentile(double percentile) {
+            if (totals.students == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100.0 * totals.students);
+            long seen = 0;
+            for (int load = 0; load <= MAX_LOAD; load++) {
+                seen += totals.loads[load];
+                if (seen >= rank) {
+                    return load;
+                }
+            }
+            return MAX_LOAD;
+        }
+
+        private int find(String major) {
+            String key = TextUtil.normalizeKey(major);
+            for (int i = 0; i < majors.length; i++) {
+                if (TextUtil.normalizeKey(majors[i]).equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
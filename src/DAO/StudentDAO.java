@@ -1,161 +1,1187 @@
 package DAO;
 
+import Models.Course;
+import Models.MajorStats;
 import Models.Student;
+import Utils.CourseIdPool;
 import Utils.FileUtil;
+import Utils.IntIntHashMap;
+import Utils.IntObjectHashMap;
+import Utils.Journal;
+import Utils.LazyRecordFile;
+import Utils.Metrics;
+import Utils.NGramIndex;
+import Utils.OperationTimer;
+import Utils.QueryCache;
+import Utils.SecondaryIndex;
+import Utils.StorageConfig;
+import Utils.StudentCodec;
+import Utils.TextUtil;
+import Utils.WriteBehindFlusher;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+/**
+ * Thread safe. Mutations take the write lock only for the in-memory change and the
+ * journal append; the durable write happens after it is released. Bulk reads such as
+ * getAllStudents are served from an immutable snapshot of the student list that is
+ * rebuilt after the set of students changes, so they never take a lock.
+ */
 public class StudentDAO {
-    private static final String STUDENTS_FILE = "data/students.dat";
+    private static final String STUDENTS_JOURNAL = "students.journal";
+    private static final String STUDENTS_COLUMNAR_FILE = "students.col";
+    // Students copied per read-lock hold by forEachStudent
+    private static final int SCAN_BLOCK = 1024;
+    // Operation timings and persisted bytes/records, exported over JMX (see Metrics)
+    private static final Metrics METRICS = Metrics.component("StudentDAO");
+    private static final OperationTimer LOAD = METRICS.timer("loadStudents");
+    private static final OperationTimer SAVE = METRICS.timer("saveStudents");
+    private static final OperationTimer CHECKPOINT = METRICS.timer("checkpoint");
+    private static final OperationTimer ADD = METRICS.timer("addStudent");
+    private static final OperationTimer IMPORT = METRICS.timer("importStudents");
+    private static final OperationTimer UPDATE = METRICS.timer("updateStudent");
+    private static final OperationTimer DELETE = METRICS.timer("deleteStudent");
+    private static final OperationTimer FIND_BY_ID = METRICS.timer("findStudentById", 64);
+    private static final OperationTimer FIND_BY_NAME = METRICS.timer("findStudentsByName");
+    private static final OperationTimer FIND_BY_MAJOR = METRICS.timer("findStudentsByMajor");
+    private static final OperationTimer FIND_BY_EMAIL = METRICS.timer("findStudentByEmail", 64);
+    private static final OperationTimer MAJOR_STATS = METRICS.timer("getMajorStats");
+    private static final OperationTimer ROSTER = METRICS.timer("getStudentsEnrolledInCourse");
+    private static final OperationTimer GPA_ABOVE = METRICS.timer("getStudentsWithGPAAbove");
+    private static final OperationTimer AGE_RANGE = METRICS.timer("getStudentsByAgeRange");
+    private static final OperationTimer ENROLL = METRICS.timer("enrollStudentInCourse");
+    private static final OperationTimer DROP = METRICS.timer("dropStudentFromCourse");
+    private final StorageConfig config;
+    // The snapshot files, one per shard, and which shards changed since the last save
+    private final StudentShards shards;
+    private volatile Journal<Student> journal;
+    private WriteBehindFlusher flusher;
+    // Set while opened lazily and not yet fully loaded, one file per shard
+    private volatile LazyRecordFile<Student>[] lazyFiles;
+    // Students handed out before the full load; lookups add to it holding only the read lock
+    private ConcurrentHashMap<Integer, Student> materialized;
+    // In insertion order; removals leave null holes until the list is compacted
     private List<Student> students;
+    private IntObjectHashMap<Student> studentsById;
+    // Position of each student in the list by ID, so replacing or removing one never scans it
+    private IntIntHashMap positions = new IntIntHashMap();
+    // Null entries in students; compacted away once they make up a quarter of the list
+    private int holes;
+    
+    // Guards students, the indexes and rosters; acquired after saveLock, never before it
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes snapshot file writes
+    private final Object saveLock = new Object();
+    // Set while the last snapshot save failed; without a journal flush() retries it
+    private volatile boolean saveFailed;
+    // Unmodifiable copy of students, null once the set of students has changed
+    private volatile List<Student> snapshot;
+    // Bumped whenever students shift position in the list (compaction, reload), so block scans can resync
+    private int listShifts;
+    
+    // Secondary indexes, maintained by putStudent/removeStudent
+    private final SecondaryIndex<Student, String> emailIndex =
+            SecondaryIndex.unique(Student::getId, student -> TextUtil.normalizeKey(student.getEmail()));
+    private final SecondaryIndex<Student, String> majorIndex =
+            SecondaryIndex.nonUnique(Student::getId, student -> TextUtil.normalizeKey(student.getMajor()));
+    private final SecondaryIndex<Student, Double> gpaIndex = SecondaryIndex.sorted(Student::getId, Student::getGpa);
+    private final SecondaryIndex<Student, Integer> ageIndex = SecondaryIndex.sorted(Student::getId, Student::getAge);
+    private final List<SecondaryIndex<Student, ?>> secondaryIndexes = List.of(emailIndex, majorIndex, gpaIndex, ageIndex);
+    // Substring search and prefix completion on names, maintained alongside the secondary indexes
+    private final NGramIndex<Student> nameSearch = new NGramIndex<>(Student::getId, Student::getName);
+    // Per-major counts and GPA sums for the reports
+    private final MajorStatsView majorStats = new MajorStatsView();
+    // Optional cache of query results, null when turned off (see StorageConfig)
+    private final QueryCache<CacheRegion> queryCache;
+    
+    /**
+     * What a cached query reads: the student list and student fields, or the rosters
+     */
+    private enum CacheRegion {
+        STUDENTS, ROSTERS
+    }
+    
+    // Inverted enrollment index: course ordinal (see CourseIdPool) -> enrolled students by ID
+    private final IntObjectHashMap<IntObjectHashMap<Student>> rosters = new IntObjectHashMap<>();
     
     public StudentDAO() {
+        this(new StorageConfig());
+    }
+    
+    public StudentDAO(StorageConfig config) {
+        this.config = config;
+        this.shards = new StudentShards(config);
         this.students = new ArrayList<>();
-        loadStudents();
+        this.queryCache = config.getQueryCacheSize() > 0
+                ? new QueryCache<>(CacheRegion.class, config.getQueryCacheSize()) : null;
+        if (!openLazily()) {
+            loadStudents();
+        }
+        if (journal != null && !config.isJournalEnabled()) {
+            foldLeftoverJournal();
+        }
+        
+        if (config.isWriteBehindEnabled()) {
+            flusher = new WriteBehindFlusher("student-flusher", this::flushPendingWrites,
+                    config.getFlushWindowMillis(), config.getFlushMaxMutations());
+        }
     }
     
     /**
-     * Load students from file
+     * Load students from the shard files, then replay any journaled mutations on top
      */
     private void loadStudents() {
+        long start = LOAD.start();
         try {
-            FileUtil.ensureDirectoryExists("data");
-            students = FileUtil.loadFromFile(STUDENTS_FILE);
+            FileUtil.ensureDirectoryExists(config.getDataDirectory());
+            students = shards.load();
+            METRICS.addRecordsRead(students.size());
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Error loading students: " + e.getMessage());
             students = new ArrayList<>();
         }
+        rebuildIndexes();
+        
+        // Entries left by a journaled run are replayed even with journaling off now
+        if (config.isJournalEnabled() || new File(config.resolve(STUDENTS_JOURNAL)).length() > 0) {
+            journal = new Journal<>(config.resolve(STUDENTS_JOURNAL), StudentCodec.INSTANCE);
+            try {
+                journal.replay(this::putStudent, key -> removeStudent(Integer.parseInt(key)));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error replaying student journal: " + e.getMessage());
+            }
+        }
+        LOAD.stop(start);
     }
     
     /**
-     * Save students to file
+     * Journaling is off but a journaled run left entries behind: fold them into the
+     * snapshot and release the journal, so a later journaled run cannot replay them
+     * over newer changes
      */
-    private void saveStudents() {
+    private void foldLeftoverJournal() {
+        checkpoint();
         try {
-            FileUtil.ensureDirectoryExists("data");
-            FileUtil.saveToFile(students, STUDENTS_FILE);
+            journal.close();
         } catch (IOException e) {
-            System.err.println("Error saving students: " + e.getMessage());
+            System.err.println("Error closing student journal: " + e.getMessage());
         }
+        journal = null;
     }
     
     /**
-     * Add a new student
+     * Open in lazy mode: read only the record directory and leave the full load
+     * until an operation needs it. Not used while journaled changes are pending, or
+     * while files of another shard layout are left to fold in.
      */
-    public boolean addStudent(Student student) {
-        if (findStudentById(student.getId()) != null) {
-            return false; // Student with this ID already exists
+    private boolean openLazily() {
+        if (!config.isLazyLoadingEnabled()) {
+            return false;
+        }
+        File journalFile = new File(config.resolve(STUDENTS_JOURNAL));
+        if (journalFile.length() > 0) {
+            return false;
+        }
+        if (!shards.hasCurrentLayout()) {
+            return false;
+        }
+        try {
+            lazyFiles = shards.openLazily();
+        } catch (IOException e) {
+            System.err.println("Error opening students lazily: " + e.getMessage());
+            lazyFiles = null;
+        }
+        if (lazyFiles == null) {
+            return false;
         }
-        students.add(student);
-        saveStudents();
+        materialized = new ConcurrentHashMap<>();
         return true;
     }
     
     /**
-     * Update an existing student
+     * Finish a lazy open by loading everything; students already handed out keep their identity
      */
-    public boolean updateStudent(Student updatedStudent) {
-        for (int i = 0; i < students.size(); i++) {
-            if (students.get(i).getId() == updatedStudent.getId()) {
-                students.set(i, updatedStudent);
-                saveStudents();
+    void ensureLoaded() {
+        if (lazyFiles == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (lazyFiles == null) {
+                return;
+            }
+            closeLazyFile();
+            loadStudents();
+            materialized.values().forEach(this::putStudent);
+            materialized = null;
+            // Re-putting the handed-out students changed nothing on disk
+            shards.clearDirty();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Point lookup while not fully loaded: decode the record through the page cache.
+     * Holds only the read lock, so lookups run side by side until the full load.
+     */
+    private Student findUnloadedStudent(int id) {
+        lock.readLock().lock();
+        try {
+            LazyRecordFile<Student>[] files = lazyFiles;
+            if (files == null) {
+                return studentsById.get(id);
+            }
+            Student student = materialized.get(id);
+            if (student == null) {
+                student = files[shards.shardOf(id)].find(id, s -> s.getId() == id);
+                if (student != null) {
+                    // Of two threads decoding the same student, both hand out the first one stored
+                    Student raced = materialized.putIfAbsent(id, student);
+                    if (raced != null) {
+                        student = raced;
+                    }
+                }
+            }
+            return student;
+        } catch (IOException e) {
+            System.err.println("Error reading student " + id + ": " + e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+        // The full load needs the write lock, which cannot be taken while holding the read lock
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return studentsById.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void closeLazyFile() {
+        LazyRecordFile<Student>[] files = lazyFiles;
+        lazyFiles = null;
+        if (files != null) {
+            StudentShards.close(files);
+        }
+    }
+    
+    /**
+     * Rebuild all indexes from the loaded list, dropping duplicate IDs
+     */
+    private void rebuildIndexes() {
+        studentsById = new IntObjectHashMap<>(students.size());
+        secondaryIndexes.forEach(SecondaryIndex::clear);
+        nameSearch.clear();
+        majorStats.clear();
+        rosters.clear();
+        positions = new IntIntHashMap(students.size());
+        holes = 0;
+        List<Student> unique = new ArrayList<>(students.size());
+        for (Student student : students) {
+            if (!studentsById.containsKey(student.getId())) {
+                studentsById.put(student.getId(), student);
+                positions.put(student.getId(), unique.size());
+                unique.add(student);
+            }
+        }
+        // Each structure only reads the students, so with shards they are built side by side
+        List<Runnable> builds = new ArrayList<>();
+        for (SecondaryIndex<Student, ?> index : secondaryIndexes) {
+            builds.add(() -> unique.forEach(index::add));
+        }
+        builds.add(() -> unique.forEach(nameSearch::add));
+        builds.add(() -> unique.forEach(this::addToViews));
+        builds.add(() -> unique.forEach(this::addToRosters));
+        shards.runAll(builds);
+        students = unique;
+        listShifts++;
+        snapshot = null;
+        invalidateQueries(CacheRegion.STUDENTS, CacheRegion.ROSTERS);
+    }
+    
+    /**
+     * Insert or replace a student in the list and its indexes
+     */
+    private void putStudent(Student student) {
+        shards.markDirty(student.getId());
+        Student existing = studentsById.put(student.getId(), student);
+        if (existing == null) {
+            positions.put(student.getId(), students.size());
+            students.add(student);
+        } else {
+            if (existing != student) {
+                students.set(positions.get(student.getId()), student);
+            }
+            // Re-index even the same instance, its fields may have been changed in place
+            removeFromIndexes(existing);
+            nameSearch.remove(existing);
+            if (existing != student) {
+                removeFromRosters(existing);
+            } else {
+                removeFromAllRosters(existing.getId());
+            }
+        }
+        for (SecondaryIndex<Student, ?> index : secondaryIndexes) {
+            index.add(student);
+        }
+        nameSearch.add(student);
+        addToViews(student);
+        addToRosters(student);
+        snapshot = null;
+        invalidateQueries(CacheRegion.STUDENTS, CacheRegion.ROSTERS);
+    }
+    
+    /**
+     * Remove a student from the list and its indexes
+     */
+    private Student removeStudent(int studentId) {
+        Student existing = studentsById.remove(studentId);
+        if (existing != null) {
+            shards.markDirty(studentId);
+            students.set(positions.remove(studentId), null);
+            if (++holes * 4 > students.size()) {
+                compactStudents();
+            }
+            removeFromIndexes(existing);
+            nameSearch.remove(existing);
+            removeFromRosters(existing);
+            snapshot = null;
+            invalidateQueries(CacheRegion.STUDENTS, CacheRegion.ROSTERS);
+        }
+        return existing;
+    }
+    
+    /**
+     * Close the holes left by removals, keeping the order of the remaining students
+     */
+    private void compactStudents() {
+        List<Student> compacted = new ArrayList<>(studentsById.size());
+        for (Student student : students) {
+            if (student != null) {
+                positions.put(student.getId(), compacted.size());
+                compacted.add(student);
+            }
+        }
+        students = compacted;
+        holes = 0;
+        listShifts++;
+    }
+    
+    private void invalidateQueries(CacheRegion... regions) {
+        if (queryCache != null) {
+            for (CacheRegion region : regions) {
+                queryCache.invalidate(region);
+            }
+        }
+    }
+    
+    /**
+     * Result of query, from the query cache when it is on. Cached lists are shared,
+     * so they are handed out unmodifiable.
+     */
+    private <T> List<T> cached(CacheRegion region, String name, Object argument, Supplier<List<T>> query) {
+        if (queryCache == null) {
+            return query.get();
+        }
+        return queryCache.get(region, name, argument, () -> Collections.unmodifiableList(query.get()));
+    }
+    
+    /**
+     * Hit, miss and eviction counts of the query cache; all zero when it is off
+     */
+    public QueryCache.Stats getQueryCacheStats() {
+        return queryCache == null ? new QueryCache.Stats(0, 0, 0, 0, 0, 0) : queryCache.getStats();
+    }
+    
+    private void addToViews(Student student) {
+        majorStats.add(TextUtil.normalizeKey(student.getMajor()), student.getMajor(), student.getGpa());
+    }
+    
+    /**
+     * Take a student out of the secondary indexes and the report views. The views are
+     * updated with the major and GPA the indexes held it under, which may predate an
+     * in-place change.
+     */
+    private void removeFromIndexes(Student student) {
+        String major = majorIndex.remove(student);
+        Double gpa = gpaIndex.remove(student);
+        emailIndex.remove(student);
+        ageIndex.remove(student);
+        majorStats.remove(major, gpa == null ? 0.0 : gpa);
+    }
+    
+    /**
+     * Add a student to the roster of every course it is enrolled in
+     */
+    private void addToRosters(Student student) {
+        student.forEachEnrolledCourseOrdinal(ordinal -> addToRoster(ordinal, student));
+    }
+    
+    /**
+     * Remove a student from the roster of every course in its course list
+     */
+    private void removeFromRosters(Student student) {
+        student.forEachEnrolledCourseOrdinal(ordinal -> removeFromRoster(ordinal, student.getId()));
+    }
+    
+    private void addToRoster(int courseOrdinal, Student student) {
+        IntObjectHashMap<Student> roster = rosters.get(courseOrdinal);
+        if (roster == null) {
+            roster = new IntObjectHashMap<>();
+            rosters.put(courseOrdinal, roster);
+        }
+        roster.put(student.getId(), student);
+    }
+    
+    private void removeFromRoster(int courseOrdinal, int studentId) {
+        IntObjectHashMap<Student> roster = rosters.get(courseOrdinal);
+        if (roster != null) {
+            roster.remove(studentId);
+        }
+    }
+    
+    /**
+     * Remove a student from every roster. Used when the same instance is updated,
+     * since its course list may have been changed in place.
+     */
+    private void removeFromAllRosters(int studentId) {
+        rosters.forEachValue(roster -> roster.remove(studentId));
+    }
+    
+    /**
+     * Returns true if another student already uses this student's email
+     */
+    private boolean violatesUniqueIndex(Student student) {
+        Student replacing = studentsById.get(student.getId());
+        for (SecondaryIndex<Student, ?> index : secondaryIndexes) {
+            if (index.conflicts(student, replacing)) {
                 return true;
             }
         }
         return false;
     }
     
+    /**
+     * Immutable view of the current students, rebuilt only after the set of students changed
+     */
+    private List<Student> snapshot() {
+        List<Student> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            current = snapshot;
+            if (current == null) {
+                List<Student> copy = new ArrayList<>(studentsById.size());
+                for (Student student : students) {
+                    if (student != null) {
+                        copy.add(student);
+                    }
+                }
+                current = Collections.unmodifiableList(copy);
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Save the changed shards to file. The snapshot is taken inside saveLock, so a save
+     * that finishes later never writes an older list than one that finished earlier,
+     * and together with the dirty shards under the read lock, so no change is missed.
+     */
+    private boolean saveStudents() {
+        synchronized (saveLock) {
+            FileUtil.ensureDirectoryExists(config.getDataDirectory());
+            long start = SAVE.start();
+            ensureLoaded();
+            List<Student> saved;
+            boolean[] changed;
+            lock.readLock().lock();
+            try {
+                saved = snapshot();
+                changed = shards.takeDirty();
+            } finally {
+                lock.readLock().unlock();
+            }
+            long written = shards.save(saved, changed);
+            SAVE.stop(start);
+            saveFailed = written < 0;
+            if (written < 0) {
+                return false;
+            }
+            METRICS.addRecordsWritten(written);
+            METRICS.addBytesWritten(shards.size(changed));
+            return true;
+        }
+    }
+    
+    /**
+     * Journal an added or changed student; called under the write lock so journal order matches memory
+     */
+    private void journalStudent(Student student) {
+        if (journal != null) {
+            journal.appendPut(student);
+        }
+    }
+    
+    /**
+     * Journal the removal of a student; called under the write lock
+     */
+    private void journalStudentRemoval(int studentId) {
+        if (journal != null) {
+            journal.appendRemove(String.valueOf(studentId));
+        }
+    }
+    
+    /**
+     * Write out journaled mutations according to the configured persistence mode.
+     * Called after the write lock is released, so other writers are not held up by the I/O.
+     */
+    private void persist() {
+        if (flusher != null) {
+            flusher.markDirty();
+            return;
+        }
+        if (journal == null) {
+            saveStudents();
+            return;
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println("Error writing student journal: " + e.getMessage());
+            checkpoint();
+            return;
+        }
+        if (journal.getEntryCount() >= config.getCheckpointInterval()) {
+            checkpoint();
+        }
+    }
+    
+    /**
+     * Background flush: one snapshot write, or one journal write and sync, for all pending mutations
+     */
+    private boolean flushPendingWrites() {
+        if (journal == null) {
+            return saveStudents();
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println("Error flushing student journal: " + e.getMessage());
+            return checkpoint();
+        }
+        if (journal.getEntryCount() >= config.getCheckpointInterval()) {
+            checkpoint();
+        }
+        return true;
+    }
+    
+    /**
+     * Write all pending changes now; returns true once they are durable
+     */
+    public boolean flush() {
+        if (flusher != null) {
+            return flusher.flush();
+        }
+        if (journal == null) {
+            // Each mutation has saved the snapshot already, unless that save failed
+            return !saveFailed || saveStudents();
+        }
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println("Error flushing student journal: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Wait until every change made so far is durable, or the timeout expires
+     */
+    public boolean awaitDurable(long timeoutMillis) throws InterruptedException {
+        if (flusher != null) {
+            return flusher.awaitDurable(timeoutMillis);
+        }
+        return flush();
+    }
+    
+    /**
+     * Fold the journal into a fresh snapshot so that recovery time stays bounded.
+     * Writers are held off until the journal is reset, so no entry can fall between the two.
+     */
+    public boolean checkpoint() {
+        long start = CHECKPOINT.start();
+        try {
+            if (lazyFiles != null) {
+                return true; // Nothing has changed since the snapshot was written
+            }
+            synchronized (saveLock) {
+                lock.writeLock().lock();
+                try {
+                    if (!saveStudents()) {
+                        return false;
+                    }
+                    if (journal != null) {
+                        try {
+                            journal.reset();
+                        } catch (IOException e) {
+                            System.err.println("Error resetting student journal: " + e.getMessage());
+                            return false;
+                        }
+                    }
+                    return true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            CHECKPOINT.stop(start);
+        }
+    }
+    
+    /**
+     * Write the current students to a memory-mapped columnar file for reporting scans
+     */
+    public ColumnarStudentStore createColumnarSnapshot() throws IOException {
+        String filename = config.resolve(STUDENTS_COLUMNAR_FILE);
+        synchronized (saveLock) {
+            ColumnarStudentStore.write(snapshot(), filename);
+        }
+        return ColumnarStudentStore.open(filename);
+    }
+    
+    /**
+     * Write out pending changes, checkpoint and release the journal
+     */
+    public void close() {
+        if (flusher != null) {
+            flusher.close();
+        }
+        closeLazyFile();
+        if (journal != null) {
+            checkpoint();
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Error closing student journal: " + e.getMessage());
+            }
+        }
+        shards.close();
+    }
+    
+    // Hooks for EnrollmentService, which logs enrollment changes itself and
+    // applies them here while holding the write lock
+    
+    ReentrantReadWriteLock.WriteLock writeLock() {
+        return lock.writeLock();
+    }
+    
+    Student findLoadedStudent(int studentId) {
+        return studentsById.get(studentId);
+    }
+    
+    /**
+     * The students enrolled in a course, copied so the caller may change their enrollments
+     */
+    List<Student> findLoadedRoster(String courseId) {
+        IntObjectHashMap<Student> roster = findRoster(courseId);
+        List<Student> enrolled = new ArrayList<>(roster == null ? 0 : roster.size());
+        if (roster != null) {
+            roster.forEachValue(enrolled::add);
+        }
+        return enrolled;
+    }
+    
+    /**
+     * Enroll or drop in memory and buffer the journal entry without writing it
+     */
+    boolean applyEnrollment(Student student, String courseId, boolean enrolled) {
+        if (enrolled ? !student.enrollInCourse(courseId) : !student.dropCourse(courseId)) {
+            return false;
+        }
+        if (enrolled) {
+            addToRoster(CourseIdPool.intern(courseId), student);
+        } else {
+            removeFromRoster(CourseIdPool.find(courseId), student.getId());
+        }
+        shards.markDirty(student.getId());
+        invalidateQueries(CacheRegion.ROSTERS);
+        journalStudent(student);
+        return true;
+    }
+    
+    /**
+     * Make changes applied through applyEnrollment durable: sync the journal,
+     * or write a snapshot when journaling is off
+     */
+    boolean flushApplied() {
+        if (journal == null) {
+            return checkpoint();
+        }
+        try {
+            journal.sync();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error flushing student journal: " + e.getMessage());
+            return checkpoint();
+        }
+    }
+    
+    /**
+     * Add a new student
+     */
+    public boolean addStudent(Student student) {
+        long start = ADD.start();
+        try {
+            ensureLoaded();
+            lock.writeLock().lock();
+            try {
+                if (studentsById.containsKey(student.getId())) {
+                    return false; // Student with this ID already exists
+                }
+                if (violatesUniqueIndex(student)) {
+                    return false; // Another student already uses this email
+                }
+                putStudent(student);
+                journalStudent(student);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            persist();
+            return true;
+        } finally {
+            ADD.stop(start);
+        }
+    }
+    
+    /**
+     * Add many students under one lock acquisition, checking IDs and emails against the
+     * existing students and the earlier students of the batch. Nothing is persisted; call
+     * checkpoint() once the whole import is done. Returns one entry per student: null if
+     * it was added, otherwise the reason it was rejected.
+     */
+    public String[] importStudents(List<Student> batch) {
+        long start = IMPORT.start();
+        try {
+            ensureLoaded();
+            String[] rejects = new String[batch.size()];
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < rejects.length; i++) {
+                    Student student = batch.get(i);
+                    if (studentsById.containsKey(student.getId())) {
+                        rejects[i] = "duplicate student ID " + student.getId();
+                    } else if (violatesUniqueIndex(student)) {
+                        rejects[i] = "duplicate email " + student.getEmail();
+                    } else {
+                        putStudent(student);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return rejects;
+        } finally {
+            IMPORT.stop(start);
+        }
+    }
+    
+    /**
+     * Update an existing student. Pass an edited copy (new Student(stored)): uniqueness
+     * is checked before the stored student changes, so a rejected update leaves it as it
+     * was. A stored instance edited in place has already changed when it gets here.
+     */
+    public boolean updateStudent(Student updatedStudent) {
+        long start = UPDATE.start();
+        try {
+            ensureLoaded();
+            lock.writeLock().lock();
+            try {
+                Student existing = studentsById.get(updatedStudent.getId());
+                if (existing == null) {
+                    return false;
+                }
+                if (violatesUniqueIndex(updatedStudent)) {
+                    if (existing == updatedStudent) {
+                        System.err.println("Student " + updatedStudent.getId()
+                                + " was edited in place to a taken email; update a copy instead");
+                    }
+                    return false;
+                }
+                putStudent(updatedStudent);
+                journalStudent(updatedStudent);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            persist();
+            return true;
+        } finally {
+            UPDATE.stop(start);
+        }
+    }
+    
     /**
      * Delete a student by ID
      */
     public boolean deleteStudent(int studentId) {
-        boolean removed = students.removeIf(student -> student.getId() == studentId);
-        if (removed) {
-            saveStudents();
+        long start = DELETE.start();
+        try {
+            ensureLoaded();
+            lock.writeLock().lock();
+            try {
+                if (removeStudent(studentId) == null) {
+                    return false;
+                }
+                journalStudentRemoval(studentId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            persist();
+            return true;
+        } finally {
+            DELETE.stop(start);
         }
-        return removed;
     }
     
     /**
      * Find student by ID
      */
     public Student findStudentById(int id) {
-        return students.stream()
-                .filter(student -> student.getId() == id)
-                .findFirst()
-                .orElse(null);
+        long start = FIND_BY_ID.start();
+        try {
+            if (lazyFiles != null) {
+                return findUnloadedStudent(id);
+            }
+            lock.readLock().lock();
+            try {
+                return studentsById.get(id);
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            FIND_BY_ID.stop(start);
+        }
     }
     
     /**
      * Find students by name (partial match, case insensitive)
      */
     public List<Student> findStudentsByName(String name) {
-        String searchName = name.toLowerCase();
-        return students.stream()
-                .filter(student -> student.getName().toLowerCase().contains(searchName))
-                .collect(Collectors.toList());
+        long start = FIND_BY_NAME.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.STUDENTS, "name", name, () -> {
+                lock.readLock().lock();
+                try {
+                    return nameSearch.search(name);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        } finally {
+            FIND_BY_NAME.stop(start);
+        }
+    }
+    
+    /**
+     * Up to limit students whose name starts with prefix (case insensitive), in name order
+     */
+    public List<Student> suggestStudentsByName(String prefix, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return nameSearch.complete(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
     
     /**
      * Find students by major
      */
     public List<Student> findStudentsByMajor(String major) {
-        return students.stream()
-                .filter(student -> student.getMajor().equalsIgnoreCase(major))
-                .collect(Collectors.toList());
+        long start = FIND_BY_MAJOR.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.STUDENTS, "major", TextUtil.normalizeKey(major), () -> {
+                lock.readLock().lock();
+                try {
+                    return majorIndex.find(TextUtil.normalizeKey(major));
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        } finally {
+            FIND_BY_MAJOR.stop(start);
+        }
+    }
+    
+    /**
+     * Student count and average GPA of every major, in major order
+     */
+    public List<MajorStats> getMajorStats() {
+        long start = MAJOR_STATS.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.STUDENTS, "majorStats", null, () -> {
+                lock.readLock().lock();
+                try {
+                    return majorStats.summaries();
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        } finally {
+            MAJOR_STATS.stop(start);
+        }
+    }
+    
+    /**
+     * Student count and average GPA of one major, or null if it has no students
+     */
+    public MajorStats getMajorStats(String major) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return majorStats.summary(TextUtil.normalizeKey(major));
+        } finally {
+            lock.readLock().unlock();
+        }
     }
     
     /**
      * Find students by email
      */
     public Student findStudentByEmail(String email) {
-        return students.stream()
-                .filter(student -> student.getEmail().equalsIgnoreCase(email))
-                .findFirst()
-                .orElse(null);
+        long start = FIND_BY_EMAIL.start();
+        try {
+            ensureLoaded();
+            lock.readLock().lock();
+            try {
+                return emailIndex.findFirst(TextUtil.normalizeKey(email));
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            FIND_BY_EMAIL.stop(start);
+        }
     }
     
     /**
-     * Get all students
+     * Get all students (an unmodifiable snapshot)
      */
     public List<Student> getAllStudents() {
-        return new ArrayList<>(students);
+        return snapshot();
+    }
+    
+    /**
+     * Visit every student matching the filter without copying the student list. If a
+     * snapshot is at hand it is walked as is; otherwise students are read from the list
+     * in small blocks under the read lock and the action runs outside it, so a slow
+     * consumer never holds up writers. Students added or removed during the scan may
+     * or may not be visited. Returns the number of students visited.
+     */
+    public long forEachStudent(Predicate<? super Student> filter, Consumer<? super Student> action) {
+        long visited = 0;
+        List<Student> current = snapshot;
+        if (current != null) {
+            for (Student student : current) {
+                if (filter.test(student)) {
+                    action.accept(student);
+                    visited++;
+                }
+            }
+            return visited;
+        }
+        
+        ensureLoaded();
+        Student[] block = new Student[SCAN_BLOCK];
+        int position = 0;
+        int count = 0;
+        int shifts = -1;
+        boolean last;
+        do {
+            lock.readLock().lock();
+            try {
+                if (shifts != -1 && shifts != listShifts) {
+                    position = resumePosition(block, count, position);
+                }
+                shifts = listShifts;
+                int end = Math.min(students.size(), position + SCAN_BLOCK);
+                count = 0;
+                for (int i = position; i < end; i++) {
+                    Student student = students.get(i);
+                    if (student != null) {
+                        block[count++] = student;
+                    }
+                }
+                position = end;
+                last = end == students.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+            for (int i = 0; i < count; i++) {
+                if (filter.test(block[i])) {
+                    action.accept(block[i]);
+                    visited++;
+                }
+            }
+        } while (!last);
+        return visited;
+    }
+    
+    /**
+     * After the list was compacted mid-scan: the position just past the last student of
+     * the previous block still in the list
+     */
+    private int resumePosition(Student[] block, int count, int position) {
+        for (int i = count - 1; i >= 0; i--) {
+            int index = positions.get(block[i].getId());
+            if (index >= 0) {
+                return index + 1;
+            }
+        }
+        return Math.min(position, students.size());
     }
     
     /**
      * Get students enrolled in a specific course
      */
     public List<Student> getStudentsEnrolledInCourse(String courseId) {
-        return students.stream()
-                .filter(student -> student.isEnrolledInCourse(courseId))
-                .collect(Collectors.toList());
+        long start = ROSTER.start();
+        try {
+            ensureLoaded();
+            int courseOrdinal = courseId == null ? -1 : CourseIdPool.find(courseId);
+            if (courseOrdinal < 0) {
+                return new ArrayList<>();
+            }
+            return cached(CacheRegion.ROSTERS, "roster", courseOrdinal, () -> {
+                lock.readLock().lock();
+                try {
+                    IntObjectHashMap<Student> roster = rosters.get(courseOrdinal);
+                    List<Student> enrolled = new ArrayList<>(roster == null ? 0 : roster.size());
+                    if (roster != null) {
+                        roster.forEachValue(enrolled::add);
+                    }
+                    return enrolled;
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        } finally {
+            ROSTER.stop(start);
+        }
+    }
+    
+    /**
+     * Get number of students enrolled in a specific course
+     */
+    public int getEnrollmentCount(String courseId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            IntObjectHashMap<Student> roster = findRoster(courseId);
+            return roster == null ? 0 : roster.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private IntObjectHashMap<Student> findRoster(String courseId) {
+        int courseOrdinal = courseId == null ? -1 : CourseIdPool.find(courseId);
+        return courseOrdinal < 0 ? null : rosters.get(courseOrdinal);
     }
     
     /**
-     * Get students with GPA above threshold
+     * Get courses whose recorded enrollment disagrees with the number of enrolled students
+     */
+    public List<Course> findEnrollmentMismatches(Collection<Course> courses) {
+        ensureLoaded();
+        List<Course> mismatches = new ArrayList<>();
+        for (Course course : courses) {
+            if (course.getCurrentEnrollment() != getEnrollmentCount(course.getCourseId())) {
+                mismatches.add(course);
+            }
+        }
+        return mismatches;
+    }
+    
+    /**
+     * Get students with GPA above threshold, in GPA order
      */
     public List<Student> getStudentsWithGPAAbove(double threshold) {
-        return students.stream()
-                .filter(student -> student.getGpa() >= threshold)
-                .collect(Collectors.toList());
+        long start = GPA_ABOVE.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.STUDENTS, "gpaAbove", threshold, () -> {
+                lock.readLock().lock();
+                try {
+                    return gpaIndex.range(threshold, null);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        } finally {
+            GPA_ABOVE.stop(start);
+        }
     }
     
     /**
-     * Get students by age range
+     * Get students by age range, in age order
      */
     public List<Student> getStudentsByAgeRange(int minAge, int maxAge) {
-        return students.stream()
-                .filter(student -> student.getAge() >= minAge && student.getAge() <= maxAge)
-                .collect(Collectors.toList());
+        long start = AGE_RANGE.start();
+        try {
+            ensureLoaded();
+            return cached(CacheRegion.STUDENTS, "ageRange", List.of(minAge, maxAge), () -> {
+                lock.readLock().lock();
+                try {
+                    return ageIndex.range(minAge, maxAge);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            });
+        } finally {
+            AGE_RANGE.stop(start);
+        }
     }
     
     /**
      * Get total number of students
      */
     public int getTotalStudents() {
-        return students.size();
+        LazyRecordFile<Student>[] files = lazyFiles;
+        if (files != null) {
+            int total = 0;
+            for (LazyRecordFile<Student> file : files) {
+                total += file.size();
+            }
+            return total;
+        }
+        lock.readLock().lock();
+        try {
+            return studentsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
     
     /**
@@ -169,29 +1195,53 @@ public class StudentDAO {
      * Enroll student in course
      */
     public boolean enrollStudentInCourse(int studentId, String courseId) {
-        Student student = findStudentById(studentId);
-        if (student != null) {
-            boolean enrolled = student.enrollInCourse(courseId);
-            if (enrolled) {
-                saveStudents();
-                return true;
+        long start = ENROLL.start();
+        try {
+            ensureLoaded();
+            lock.writeLock().lock();
+            try {
+                Student student = studentsById.get(studentId);
+                if (student == null || !student.enrollInCourse(courseId)) {
+                    return false;
+                }
+                addToRoster(CourseIdPool.intern(courseId), student);
+                shards.markDirty(studentId);
+                invalidateQueries(CacheRegion.ROSTERS);
+                journalStudent(student);
+            } finally {
+                lock.writeLock().unlock();
             }
+            persist();
+            return true;
+        } finally {
+            ENROLL.stop(start);
         }
-        return false;
     }
     
     /**
      * Drop student from course
      */
     public boolean dropStudentFromCourse(int studentId, String courseId) {
-        Student student = findStudentById(studentId);
-        if (student != null) {
-            boolean dropped = student.dropCourse(courseId);
-            if (dropped) {
-                saveStudents();
-                return true;
+        long start = DROP.start();
+        try {
+            ensureLoaded();
+            lock.writeLock().lock();
+            try {
+                Student student = studentsById.get(studentId);
+                if (student == null || !student.dropCourse(courseId)) {
+                    return false;
+                }
+                removeFromRoster(CourseIdPool.find(courseId), studentId);
+                shards.markDirty(studentId);
+                invalidateQueries(CacheRegion.ROSTERS);
+                journalStudent(student);
+            } finally {
+                lock.writeLock().unlock();
             }
+            persist();
+            return true;
+        } finally {
+            DROP.stop(start);
         }
-        return false;
     }
 }
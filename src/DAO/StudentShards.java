@@ -0,0 +1,363 @@
+package DAO;
+
+import Models.Student;
+import Utils.FileUtil;
+import Utils.LazyRecordFile;
+import Utils.StorageConfig;
+import Utils.StudentCodec;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.regex.Pattern;
+
+/**
+ * Where the student snapshot lives on disk: the single students.dat, or with N shards
+ * the files students.0-of-N.dat to students.(N-1)-of-N.dat, each holding the students
+ * whose ID hashes to it. Maintained by StudentDAO.
+ *
+ * Shards are loaded and saved in parallel, one task per shard. The DAO marks the
+ * shard of every student it changes, and a save rewrites only the marked shards; the
+ * single file is always rewritten whole. Files of another layout (a different shard
+ * count, or students.dat) are still read at load, and removed once the first full
+ * save has written everything in the current layout. The same pool builds the DAO's
+ * indexes side by side after a load.
+ */
+class StudentShards {
+    private static final String BASE_NAME = "students";
+    private static final Pattern SHARD_FILE = Pattern.compile("students\\.\\d+-of-\\d+\\.dat");
+
+    private final StorageConfig config;
+    private final int count;
+    private final String[] files;
+    // 1 for each shard changed since its last save
+    private final AtomicIntegerArray dirty;
+    // Files of another layout found at load; guarded by the DAO's saveLock
+    private final List<File> staleFiles = new ArrayList<>();
+    // Loads and saves shards; null with a single file
+    private final ExecutorService pool;
+
+    StudentShards(StorageConfig config) {
+        this.config = config;
+        this.count = config.getStudentShards();
+        this.files = new String[count];
+        for (int shard = 0; shard < count; shard++) {
+            files[shard] = config.resolve(count == 1 ? BASE_NAME + ".dat" : BASE_NAME + "." + shard + "-of-" + count + ".dat");
+        }
+        this.dirty = new AtomicIntegerArray(count);
+        if (count > 1) {
+            AtomicInteger created = new AtomicInteger();
+            int threads = Math.min(count, Runtime.getRuntime().availableProcessors());
+            pool = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "student-shard-" + created.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            pool = null;
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * Shard of a student ID; IDs are mixed first so that runs and strides spread evenly
+     */
+    int shardOf(int id) {
+        int hash = id * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), count);
+    }
+
+    /**
+     * The current layout's files, for callers that read them directly
+     */
+    String file(int shard) {
+        return files[shard];
+    }
+
+    /**
+     * Records that a student of this ID changed; call under the DAO write lock
+     */
+    void markDirty(int id) {
+        if (count > 1) {
+            dirty.set(shardOf(id), 1);
+        }
+    }
+
+    void markAllDirty() {
+        for (int shard = 0; shard < count; shard++) {
+            dirty.set(shard, 1);
+        }
+    }
+
+    void clearDirty() {
+        for (int shard = 0; shard < count; shard++) {
+            dirty.set(shard, 0);
+        }
+    }
+
+    /**
+     * Unmarks and returns the shards to write; call under the DAO read lock, together
+     * with taking the snapshot to write
+     */
+    boolean[] takeDirty() {
+        boolean[] taken = new boolean[count];
+        for (int shard = 0; shard < count; shard++) {
+            taken[shard] = count == 1 || dirty.getAndSet(shard, 0) != 0;
+        }
+        return taken;
+    }
+
+    /**
+     * True when the data directory holds only files of the current layout
+     */
+    boolean hasCurrentLayout() {
+        return findStaleFiles().isEmpty();
+    }
+
+    /**
+     * Reads every shard in parallel, then any files of another layout, and returns the
+     * students by ID; of two with the same ID, the one from the current layout comes first
+     */
+    List<Student> load() throws IOException, ClassNotFoundException {
+        List<File> stale = findStaleFiles();
+        List<String> sources = new ArrayList<>(List.of(files));
+        for (File file : stale) {
+            sources.add(file.getPath());
+        }
+        List<List<Student>> parts = run(sources.size(), i -> FileUtil.loadRecords(sources.get(i), StudentCodec.INSTANCE));
+        int total = 0;
+        for (List<Student> part : parts) {
+            total += part.size();
+        }
+        List<Student> students = new ArrayList<>(total);
+        for (List<Student> part : parts) {
+            students.addAll(part);
+        }
+        if (parts.size() > 1) {
+            // Back into ID order, which the indexes build fastest from; the sort merges the
+            // files' runs and is stable, so the current layout still comes first
+            students.sort(Comparator.comparingInt(Student::getId));
+        }
+        staleFiles.clear();
+        staleFiles.addAll(stale);
+        if (!stale.isEmpty()) {
+            markAllDirty();
+        }
+        return students;
+    }
+
+    /**
+     * Opens every shard for random access, or returns null if one cannot be opened
+     */
+    LazyRecordFile<Student>[] openLazily() throws IOException {
+        LazyRecordFile<Student>[] opened = newLazyFiles(count);
+        for (int shard = 0; shard < count; shard++) {
+            opened[shard] = LazyRecordFile.open(files[shard], StudentCodec.INSTANCE, config.getPageSize(),
+                    config.getPageCacheSize());
+            if (opened[shard] == null) {
+                close(opened);
+                return null;
+            }
+        }
+        return opened;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LazyRecordFile<Student>[] newLazyFiles(int length) {
+        return (LazyRecordFile<Student>[]) new LazyRecordFile<?>[length];
+    }
+
+    static void close(LazyRecordFile<Student>[] opened) {
+        for (LazyRecordFile<Student> file : opened) {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing students file: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the students of the given shards in parallel; call under the DAO's saveLock.
+     * Shards that fail are marked again, so the next save retries them. Returns the
+     * number of students written, or -1 if a shard failed.
+     */
+    long save(List<Student> snapshot, boolean[] shards) {
+        List<List<Student>> buckets = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            buckets.add(shards[shard] ? new ArrayList<>(snapshot.size() / count + 16) : null);
+        }
+        for (Student student : snapshot) {
+            List<Student> bucket = count == 1 ? buckets.get(0) : buckets.get(shardOf(student.getId()));
+            if (bucket != null) {
+                bucket.add(student);
+            }
+        }
+        List<Integer> targets = new ArrayList<>();
+        for (int shard = 0; shard < count; shard++) {
+            if (shards[shard]) {
+                targets.add(shard);
+            }
+        }
+
+        long written = 0;
+        boolean failed = false;
+        List<Boolean> results;
+        try {
+            results = run(targets.size(), i -> {
+                int shard = targets.get(i);
+                try {
+                    FileUtil.saveRecords(buckets.get(shard), files[shard], StudentCodec.INSTANCE);
+                    return true;
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Error saving students to " + files[shard] + ": " + e.getMessage());
+                    return false;
+                }
+            });
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Error saving students: " + e.getMessage());
+            results = Collections.nCopies(targets.size(), false);
+        }
+        for (int i = 0; i < targets.size(); i++) {
+            int shard = targets.get(i);
+            if (!results.get(i)) {
+                dirty.set(shard, 1);
+                failed = true;
+            } else {
+                written += buckets.get(shard).size();
+            }
+        }
+        if (failed) {
+            return -1;
+        }
+        if (!staleFiles.isEmpty() && targets.size() == count) {
+            // Every shard was forced and renamed durably by saveRecords, so the old layout can go.
+            // Its removal must be durable too before the journal is reset: a stale file coming
+            // back after a crash would bring back students deleted since it was written
+            for (File file : staleFiles) {
+                if (!file.delete() && file.exists()) {
+                    System.err.println("Could not remove old student file " + file);
+                }
+            }
+            try {
+                FileUtil.syncDirectory(Paths.get(config.getDataDirectory()).toAbsolutePath());
+            } catch (IOException e) {
+                System.err.println("Error syncing student directory: " + e.getMessage());
+                markAllDirty();
+                return -1;
+            }
+            staleFiles.clear();
+        }
+        return written;
+    }
+
+    /**
+     * Bytes on disk of the given shards
+     */
+    long size(boolean[] shards) {
+        long bytes = 0;
+        for (int shard = 0; shard < count; shard++) {
+            if (shards[shard]) {
+                bytes += new File(files[shard]).length();
+            }
+        }
+        return bytes;
+    }
+
+    void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs independent tasks on the shard pool and waits for all of them; inline with a
+     * single file
+     */
+    void runAll(List<Runnable> tasks) {
+        try {
+            run(tasks.size(), i -> {
+                tasks.get(i).run();
+                return null;
+            });
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<File> findStaleFiles() {
+        List<File> stale = new ArrayList<>();
+        File single = new File(config.resolve(BASE_NAME + ".dat"));
+        if (count > 1 && single.exists()) {
+            stale.add(single);
+        }
+        File[] shardFiles = new File(config.getDataDirectory()).listFiles(
+                (directory, name) -> SHARD_FILE.matcher(name).matches());
+        if (shardFiles != null) {
+            List<String> current = List.of(files);
+            for (File file : shardFiles) {
+                if (!current.contains(file.getPath())) {
+                    stale.add(file);
+                }
+            }
+        }
+        return stale;
+    }
+
+    private interface ShardTask<T> {
+        T run(int index) throws IOException, ClassNotFoundException;
+    }
+
+    /**
+     * Runs tasks 0..n-1 on the pool, or inline for one task; rethrows the first failure
+     */
+    private <T> List<T> run(int n, ShardTask<T> task) throws IOException, ClassNotFoundException {
+        List<T> results = new ArrayList<>(n);
+        if (pool == null || n == 1) {
+            for (int i = 0; i < n; i++) {
+                results.add(task.run(i));
+            }
+            return results;
+        }
+        List<Future<T>> futures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> task.run(index)));
+        }
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for student shards");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof ClassNotFoundException) {
+                    throw (ClassNotFoundException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+        return results;
+    }
+}
@@ -1,15 +1,19 @@
 package Models;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class Course implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final AtomicIntegerFieldUpdater<Course> ENROLLMENT =
+            AtomicIntegerFieldUpdater.newUpdater(Course.class, "currentEnrollment");
     
     private String courseId;
     private String courseName;
     private int credits;
     private String instructor;
     private int maxCapacity;
-    private int currentEnrollment;
+    // Changed with compare-and-set so concurrent enrollments never lose an update
+    private volatile int currentEnrollment;
 
     // Default constructor
     public Course() {
@@ -80,15 +84,33 @@ public class Course implements Serializable {
         return currentEnrollment < maxCapacity;
     }
 
-    public void incrementEnrollment() {
-        if (hasAvailableSpots()) {
-            currentEnrollment++;
+    /**
+     * Takes one seat if any is left; returns false when the course is full
+     */
+    public boolean incrementEnrollment() {
+        while (true) {
+            int current = currentEnrollment;
+            if (current >= maxCapacity) {
+                return false;
+            }
+            if (ENROLLMENT.compareAndSet(this, current, current + 1)) {
+                return true;
+            }
         }
     }
 
-    public void decrementEnrollment() {
-        if (currentEnrollment > 0) {
-            currentEnrollment--;
+    /**
+     * Releases one seat; returns false when nobody is enrolled
+     */
+    public boolean decrementEnrollment() {
+        while (true) {
+            int current = currentEnrollment;
+            if (current <= 0) {
+                return false;
+            }
+            if (ENROLLMENT.compareAndSet(this, current, current - 1)) {
+                return true;
+            }
         }
     }
 
@@ -0,0 +1,37 @@
+package Models;
+
+/**
+ * Summary of one major: how many students it has and their average GPA
+ */
+public class MajorStats {
+    private final String major;
+    private final int studentCount;
+    private final double averageGpa;
+
+    public MajorStats(String major, int studentCount, double averageGpa) {
+        this.major = major;
+        this.studentCount = studentCount;
+        this.averageGpa = averageGpa;
+    }
+
+    public String getMajor() {
+        return major;
+    }
+
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    public double getAverageGpa() {
+        return averageGpa;
+    }
+
+    @Override
+    public String toString() {
+        return "MajorStats{" +
+                "major='" + major + '\'' +
+                ", studentCount=" + studentCount +
+                ", averageGpa=" + averageGpa +
+                '}';
+    }
+}
@@ -1,10 +1,30 @@
 package Models;
+import Utils.CourseIdPool;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class Student implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final int[] NO_COURSES = new int[0];
+    
+    // Enrollments are still serialized as a list of course IDs, so existing data files keep loading
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("name", String.class),
+        new ObjectStreamField("id", int.class),
+        new ObjectStreamField("email", String.class),
+        new ObjectStreamField("age", int.class),
+        new ObjectStreamField("major", String.class),
+        new ObjectStreamField("gpa", double.class),
+        new ObjectStreamField("enrolledCourses", List.class)
+    };
     
     // Private fields
     private String name;
@@ -13,11 +33,12 @@ public class Student implements Serializable {
     private int age;
     private String major;
     private double gpa;
-    private List<String> enrolledCourses;
+    // Sorted CourseIdPool ordinals of the enrolled courses; the array is replaced, never modified in place
+    private volatile int[] enrolledCourseOrdinals;
 
     // Default constructor
     public Student() {
-        this.enrolledCourses = new ArrayList<>();
+        this.enrolledCourseOrdinals = NO_COURSES;
     }
 
     // Parameterized constructor
@@ -28,7 +49,19 @@ public class Student implements Serializable {
         this.age = age;
         this.major = major;
         this.gpa = gpa;
-        this.enrolledCourses = new ArrayList<>();
+        this.enrolledCourseOrdinals = NO_COURSES;
+    }
+
+    // Copy constructor: edit the copy and pass it to StudentDAO.updateStudent, so a
+    // rejected update leaves the stored student untouched
+    public Student(Student other) {
+        this.name = other.name;
+        this.id = other.id;
+        this.email = other.email;
+        this.age = other.age;
+        this.major = other.major;
+        this.gpa = other.gpa;
+        this.enrolledCourseOrdinals = other.enrolledCourseOrdinals;
     }
 
     // Getter methods
@@ -57,7 +90,25 @@ public class Student implements Serializable {
     }
 
     public List<String> getEnrolledCourses() {
-        return new ArrayList<>(enrolledCourses);
+        List<String> courseIds = new ArrayList<>(enrolledCourseOrdinals.length);
+        for (int ordinal : enrolledCourseOrdinals) {
+            courseIds.add(CourseIdPool.idOf(ordinal));
+        }
+        return courseIds;
+    }
+
+    // Allocation-free read access to enrollments: each call walks one copy of the array,
+    // which a concurrent enroll or drop replaces rather than changes
+    public void forEachEnrolledCourse(Consumer<String> action) {
+        for (int ordinal : enrolledCourseOrdinals) {
+            action.accept(CourseIdPool.idOf(ordinal));
+        }
+    }
+
+    public void forEachEnrolledCourseOrdinal(IntConsumer action) {
+        for (int ordinal : enrolledCourseOrdinals) {
+            action.accept(ordinal);
+        }
     }
 
     // Setter methods
@@ -86,28 +137,106 @@ public class Student implements Serializable {
     }
 
     public void setEnrolledCourses(List<String> enrolledCourses) {
-        this.enrolledCourses = new ArrayList<>(enrolledCourses);
+        int[] ordinals = new int[enrolledCourses.size()];
+        int count = 0;
+        for (String courseId : enrolledCourses) {
+            if (courseId != null) {
+                ordinals[count++] = CourseIdPool.intern(courseId);
+            }
+        }
+        Arrays.sort(ordinals, 0, count);
+        // Drop duplicates (including IDs differing only in case)
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || ordinals[unique - 1] != ordinals[i]) {
+                ordinals[unique++] = ordinals[i];
+            }
+        }
+        this.enrolledCourseOrdinals = unique == 0 ? NO_COURSES : Arrays.copyOf(ordinals, unique);
     }
 
-    // Course enrollment methods
+    // Course enrollment methods (course IDs are matched case-insensitively)
     public boolean enrollInCourse(String courseId) {
-        if (!enrolledCourses.contains(courseId)) {
-            enrolledCourses.add(courseId);
-            return true;
+        if (courseId == null) {
+            return false;
+        }
+        int ordinal = CourseIdPool.intern(courseId);
+        int position = Arrays.binarySearch(enrolledCourseOrdinals, ordinal);
+        if (position >= 0) {
+            return false;
         }
-        return false;
+        int insertAt = -position - 1;
+        int[] updated = new int[enrolledCourseOrdinals.length + 1];
+        System.arraycopy(enrolledCourseOrdinals, 0, updated, 0, insertAt);
+        updated[insertAt] = ordinal;
+        System.arraycopy(enrolledCourseOrdinals, insertAt, updated, insertAt + 1, enrolledCourseOrdinals.length - insertAt);
+        enrolledCourseOrdinals = updated;
+        return true;
     }
 
     public boolean dropCourse(String courseId) {
-        return enrolledCourses.remove(courseId);
+        int position = indexOfCourse(courseId);
+        if (position < 0) {
+            return false;
+        }
+        if (enrolledCourseOrdinals.length == 1) {
+            enrolledCourseOrdinals = NO_COURSES;
+            return true;
+        }
+        int[] updated = new int[enrolledCourseOrdinals.length - 1];
+        System.arraycopy(enrolledCourseOrdinals, 0, updated, 0, position);
+        System.arraycopy(enrolledCourseOrdinals, position + 1, updated, position, updated.length - position);
+        enrolledCourseOrdinals = updated;
+        return true;
     }
 
     public boolean isEnrolledInCourse(String courseId) {
-        return enrolledCourses.contains(courseId);
+        return indexOfCourse(courseId) >= 0;
+    }
+
+    public boolean isEnrolledInCourse(int courseOrdinal) {
+        return Arrays.binarySearch(enrolledCourseOrdinals, courseOrdinal) >= 0;
     }
 
     public int getTotalEnrolledCourses() {
-        return enrolledCourses.size();
+        return enrolledCourseOrdinals.length;
+    }
+
+    private int indexOfCourse(String courseId) {
+        if (courseId == null) {
+            return -1;
+        }
+        int ordinal = CourseIdPool.find(courseId);
+        return ordinal < 0 ? -1 : Arrays.binarySearch(enrolledCourseOrdinals, ordinal);
+    }
+
+    // Serialization: write enrollments as course IDs, since ordinals are only valid in this process
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("name", name);
+        fields.put("id", id);
+        fields.put("email", email);
+        fields.put("age", age);
+        fields.put("major", major);
+        fields.put("gpa", gpa);
+        fields.put("enrolledCourses", getEnrolledCourses());
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        name = (String) fields.get("name", null);
+        id = fields.get("id", 0);
+        email = (String) fields.get("email", null);
+        age = fields.get("age", 0);
+        major = (String) fields.get("major", null);
+        gpa = fields.get("gpa", 0.0);
+        List<String> courseIds = (List<String>) fields.get("enrolledCourses", null);
+        enrolledCourseOrdinals = NO_COURSES;
+        if (courseIds != null) {
+            setEnrolledCourses(courseIds);
+        }
     }
 
     // toString method for easy printing
@@ -120,7 +249,7 @@ public class Student implements Serializable {
                 ", age=" + age +
                 ", major='" + major + '\'' +
                 ", gpa=" + gpa +
-                ", enrolledCourses=" + enrolledCourses +
+                ", enrolledCourses=" + getEnrolledCourses() +
                 '}';
     }
 }
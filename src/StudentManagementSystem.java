@@ -1,18 +1,34 @@
 import Models.Student;
 import Models.Course;
+import Models.MajorStats;
 import DAO.StudentDAO;
 import DAO.CourseDAO;
+import DAO.EnrollmentService;
+import Utils.Metrics;
+import Utils.StorageConfig;
 import java.util.List;
 import java.util.Scanner;
 
 public class StudentManagementSystem {
+    // Names offered when a search ends with *
+    private static final int SUGGESTIONS = 10;
+    // Courses listed in the popular courses report
+    private static final int POPULAR_COURSES = 10;
+    // Query results each DAO keeps cached with --query-cache and no size given
+    private static final int QUERY_CACHE_SIZE = 256;
     private StudentDAO studentDAO;
     private CourseDAO courseDAO;
+    private EnrollmentService enrollmentService;
     private Scanner scanner;
 
     public StudentManagementSystem() {
-        this.studentDAO = new StudentDAO();
-        this.courseDAO = new CourseDAO();
+        this(new StorageConfig());
+    }
+
+    public StudentManagementSystem(StorageConfig config) {
+        this.studentDAO = new StudentDAO(config);
+        this.courseDAO = new CourseDAO(config);
+        this.enrollmentService = new EnrollmentService(studentDAO, courseDAO, config);
         this.scanner = new Scanner(System.in);
         
         // Initialize with sample data if no data exists
@@ -61,6 +77,9 @@ public class StudentManagementSystem {
                     reportsMenu();
                     break;
                 case 5:
+                    enrollmentService.close();
+                    studentDAO.close();
+                    courseDAO.close();
                     System.out.println("Thank you for using Student Management System!");
                     return;
                 default:
@@ -193,6 +212,11 @@ public class StudentManagementSystem {
         }
         
         String email = getStringInput("Enter email: ");
+        if (studentDAO.findStudentByEmail(email) != null) {
+            System.out.println("A student with email " + email + " already exists!");
+            return;
+        }
+        
         int age = getIntInput("Enter age: ");
         String major = getStringInput("Enter major: ");
         double gpa = getDoubleInput("Enter GPA: ");
@@ -262,14 +286,59 @@ public class StudentManagementSystem {
             return;
         }
         
-        if (studentDAO.enrollStudentInCourse(studentId, courseId) && 
-            courseDAO.incrementEnrollment(courseId)) {
+        if (enrollmentService.enroll(studentId, courseId)) {
             System.out.println("Student enrolled successfully!");
         } else {
             System.out.println("Failed to enroll student.");
         }
     }
 
+    private void dropStudent() {
+        System.out.println("\n--- Drop Student from Course ---");
+        int studentId = getIntInput("Enter student ID: ");
+        Student student = studentDAO.findStudentById(studentId);
+        
+        if (student == null) {
+            System.out.println("Student not found!");
+            return;
+        }
+        
+        String courseId = getStringInput("Enter course ID to drop: ");
+        if (!student.isEnrolledInCourse(courseId)) {
+            System.out.println("Student is not enrolled in this course!");
+            return;
+        }
+        
+        if (enrollmentService.drop(studentId, courseId)) {
+            System.out.println("Student dropped successfully!");
+        } else {
+            System.out.println("Failed to drop student.");
+        }
+    }
+
+    private void viewCourseEnrollment() {
+        System.out.println("\n--- View Course Enrollment ---");
+        String courseId = getStringInput("Enter course ID: ");
+        Course course = courseDAO.findCourseById(courseId);
+        
+        if (course == null) {
+            System.out.println("Course not found!");
+            return;
+        }
+        
+        List<Student> roster = studentDAO.getStudentsEnrolledInCourse(courseId);
+        System.out.println(course.getCourseName() + " (" + course.getCourseId() + ") - Enrollment: " +
+                         roster.size() + "/" + course.getMaxCapacity());
+        for (Student student : roster) {
+            System.out.println(student.getName() + " (ID: " + student.getId() + ")");
+        }
+        
+        if (roster.size() != course.getCurrentEnrollment()) {
+            System.out.println("Warning: course records " + course.getCurrentEnrollment() +
+                             " enrolled students but " + roster.size() + " are enrolled.");
+        }
+    }
+
     private void listAllStudents() {
         System.out.println("\n--- All Students ---");
         List<Student> students = studentDAO.getAllStudents();
@@ -301,7 +370,8 @@ public class StudentManagementSystem {
             System.out.println("2. Popular Courses (by enrollment)");
             System.out.println("3. Students by Major");
             System.out.println("4. Course Availability");
-            System.out.println("5. Back to Main Menu");
+            System.out.println("5. Performance Metrics");
+            System.out.println("6. Back to Main Menu");
             
             int choice = getIntInput("Enter your choice: ");
             
@@ -319,6 +389,9 @@ public class StudentManagementSystem {
                     showCourseAvailability();
                     break;
                 case 5:
+                    showMetrics();
+                    break;
+                case 6:
                     return;
                 default:
                     System.out.println("Invalid choice. Please try again.");
@@ -326,6 +399,13 @@ public class StudentManagementSystem {
         }
     }
 
+    private void showMetrics() {
+        System.out.println("\n--- Performance Metrics ---");
+        System.out.print(Metrics.report());
+        System.out.println("Query cache: students " + studentDAO.getQueryCacheStats()
+                + "; courses " + courseDAO.getQueryCacheStats());
+    }
+
     private void showHighGPAStudents() {
         System.out.println("\n--- Students with GPA >= 3.5 ---");
         List<Student> students = studentDAO.getStudentsWithGPAAbove(3.5);
@@ -340,8 +420,8 @@ public class StudentManagementSystem {
     }
 
     private void showPopularCourses() {
-        System.out.println("\n--- Courses by Enrollment ---");
-        List<Course> courses = courseDAO.getCoursesSortedByEnrollment();
+        System.out.println("\n--- Most Popular Courses ---");
+        List<Course> courses = courseDAO.getMostEnrolledCourses(POPULAR_COURSES);
         for (Course course : courses) {
             System.out.println(course.getCourseName() + " (" + course.getCourseId() + 
                              ") - Enrollment: " + course.getCurrentEnrollment() + 
@@ -350,6 +430,11 @@ public class StudentManagementSystem {
     }
 
     private void showStudentsByMajor() {
+        System.out.println("\n--- Majors ---");
+        for (MajorStats stats : studentDAO.getMajorStats()) {
+            System.out.printf("%s: %d students, average GPA %.2f%n",
+                    stats.getMajor(), stats.getStudentCount(), stats.getAverageGpa());
+        }
         String major = getStringInput("Enter major to search: ");
         List<Student> students = studentDAO.findStudentsByMajor(major);
         if (students.isEmpty()) {
@@ -365,12 +450,43 @@ public class StudentManagementSystem {
 
     private void showCourseAvailability() {
         System.out.println("\n--- Course Availability ---");
-        List<Course> courses = courseDAO.getAllCourses();
-        for (Course course : courses) {
+        for (Course course : courseDAO.getAvailableCourses()) {
             int available = course.getMaxCapacity() - course.getCurrentEnrollment();
-            String status = available > 0 ? "Available (" + available + " spots)" : "Full";
             System.out.println(course.getCourseName() + " (" + course.getCourseId() + 
-                             ") - " + status);
+                             ") - Available (" + available + " spots)");
+        }
+        for (Course course : courseDAO.getFullCourses()) {
+            System.out.println(course.getCourseName() + " (" + course.getCourseId() + ") - Full");
+        }
+    }
+
+    private void searchStudents() {
+        System.out.println("\n--- Search Students ---");
+        String name = getStringInput("Enter part of a name (end with * for suggestions): ");
+        List<Student> students = name.endsWith("*")
+                ? studentDAO.suggestStudentsByName(name.substring(0, name.length() - 1), SUGGESTIONS)
+                : studentDAO.findStudentsByName(name);
+        if (students.isEmpty()) {
+            System.out.println("No students found.");
+            return;
+        }
+        for (Student student : students) {
+            System.out.println(student.getName() + " (ID: " + student.getId() + ", Major: " + student.getMajor() + ")");
+        }
+    }
+
+    private void searchCourses() {
+        System.out.println("\n--- Search Courses ---");
+        String name = getStringInput("Enter part of a course name (end with * for suggestions): ");
+        List<Course> courses = name.endsWith("*")
+                ? courseDAO.suggestCoursesByName(name.substring(0, name.length() - 1), SUGGESTIONS)
+                : courseDAO.findCoursesByName(name);
+        if (courses.isEmpty()) {
+            System.out.println("No courses found.");
+            return;
+        }
+        for (Course course : courses) {
+            System.out.println(course.getCourseId() + " - " + course.getCourseName() + " (" + course.getInstructor() + ")");
         }
     }
 
@@ -407,16 +523,37 @@ public class StudentManagementSystem {
     // Placeholder methods for remaining functionality
     private void updateStudent() { System.out.println("Update Student feature - To be implemented"); }
     private void deleteStudent() { System.out.println("Delete Student feature - To be implemented"); }
-    private void searchStudents() { System.out.println("Search Students feature - To be implemented"); }
     private void updateCourse() { System.out.println("Update Course feature - To be implemented"); }
     private void deleteCourse() { System.out.println("Delete Course feature - To be implemented"); }
-    private void searchCourses() { System.out.println("Search Courses feature - To be implemented"); }
-    private void dropStudent() { System.out.println("Drop Student feature - To be implemented"); }
     private void viewStudentCourses() { System.out.println("View Student Courses feature - To be implemented"); }
-    private void viewCourseEnrollment() { System.out.println("View Course Enrollment feature - To be implemented"); }
 
     public static void main(String[] args) {
-        StudentManagementSystem sms = new StudentManagementSystem();
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchRunner.main(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            ApiServer.main(args);
+            return;
+        }
+        // Journaling, lazy loading and the query cache stay off unless asked for
+        StorageConfig config = new StorageConfig();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--data") && i + 1 < args.length) {
+                config.setDataDirectory(args[++i]);
+            } else if (args[i].equals("--journal")) {
+                config.setJournalEnabled(true);
+            } else if (args[i].equals("--lazy")) {
+                config.setLazyLoadingEnabled(true);
+            } else if (args[i].equals("--query-cache")) {
+                config.setQueryCacheSize(i + 1 < args.length && !args[i + 1].startsWith("--")
+                        ? Integer.parseInt(args[++i]) : QUERY_CACHE_SIZE);
+            } else {
+                System.err.println("Usage: java StudentManagementSystem [--data DIR] [--journal] [--lazy] [--query-cache [N]]");
+                System.exit(1);
+            }
+        }
+        StudentManagementSystem sms = new StudentManagementSystem(config);
         sms.run();
     }
 }
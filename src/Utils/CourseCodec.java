@@ -0,0 +1,62 @@
+package Utils;
+
+import Models.Course;
+
+/**
+ * Binary layout of a Course.
+ * Version 1: credits, maxCapacity, currentEnrollment, courseId, courseName, instructor.
+ */
+public class CourseCodec implements RecordCodec<Course> {
+    public static final CourseCodec INSTANCE = new CourseCodec();
+
+    @Override
+    public String recordType() {
+        return "Course";
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public void encode(Course course, RecordWriter out) {
+        out.writeInt(course.getCredits());
+        out.writeInt(course.getMaxCapacity());
+        out.writeInt(course.getCurrentEnrollment());
+        out.writeString(course.getCourseId());
+        out.writeString(course.getCourseName());
+        out.writeString(course.getInstructor());
+    }
+
+    @Override
+    public Course decode(RecordReader in, int schemaVersion) {
+        int credits = in.readInt();
+        int maxCapacity = in.readInt();
+        int currentEnrollment = in.readInt();
+        String courseId = in.readString();
+        String courseName = in.readString();
+        String instructor = in.readString();
+        Course course = new Course(courseId, courseName, credits, instructor, maxCapacity);
+        course.setCurrentEnrollment(currentEnrollment);
+        return course;
+    }
+
+    @Override
+    public long directoryKey(Course course) {
+        return keyOf(course.getCourseId());
+    }
+
+    /**
+     * Directory key of a course ID: 64-bit FNV-1a hash of the normalized ID
+     */
+    public static long keyOf(String courseId) {
+        String key = TextUtil.normalizeKey(courseId);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
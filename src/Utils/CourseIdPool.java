@@ -0,0 +1,66 @@
+package Utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide intern pool that maps course IDs to small int ordinals.
+ * IDs are matched case-insensitively; the first spelling seen becomes the
+ * canonical one. Lets students store enrollments as sorted int arrays instead
+ * of lists of strings.
+ */
+public class CourseIdPool {
+    // Canonical spelling -> ordinal, one entry per course, so lookups of a stored ID skip normalizing.
+    // Other spellings, such as IDs typed into a request, are normalized and never cached.
+    private static final ConcurrentHashMap<String, Integer> byCanonicalId = new ConcurrentHashMap<>();
+    // Normalized key -> ordinal
+    private static final ConcurrentHashMap<String, Integer> byKey = new ConcurrentHashMap<>();
+    private static volatile String[] idsByOrdinal = new String[64];
+    private static int nextOrdinal = 0;
+
+    private CourseIdPool() {
+    }
+
+    /**
+     * Returns the ordinal for courseId, assigning a new one if it has not been seen
+     */
+    public static int intern(String courseId) {
+        int ordinal = find(courseId);
+        return ordinal >= 0 ? ordinal : internSlow(courseId);
+    }
+
+    /**
+     * Returns the ordinal for courseId, or -1 if it has never been interned
+     */
+    public static int find(String courseId) {
+        Integer ordinal = byCanonicalId.get(courseId);
+        if (ordinal == null) {
+            ordinal = byKey.get(TextUtil.normalizeKey(courseId));
+        }
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Returns the canonical course ID for an ordinal
+     */
+    public static String idOf(int ordinal) {
+        return idsByOrdinal[ordinal];
+    }
+
+    private static synchronized int internSlow(String courseId) {
+        String key = TextUtil.normalizeKey(courseId);
+        Integer ordinal = byKey.get(key);
+        if (ordinal == null) {
+            ordinal = nextOrdinal++;
+            String[] ids = idsByOrdinal;
+            if (ordinal >= ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[ordinal] = courseId;
+            idsByOrdinal = ids;
+            byCanonicalId.put(courseId, ordinal);
+            byKey.put(key, ordinal);
+        }
+        return ordinal;
+    }
+}
@@ -0,0 +1,55 @@
+package Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * One-shot migration of data files from Java object serialization to the binary
+ * record format. The original file is kept next to the new one with a .bak suffix.
+ *
+ * Usage: java Utils.DataMigrator [data directory]
+ */
+public class DataMigrator {
+
+    public static void main(String[] args) {
+        String dataDirectory = args.length > 0 ? args[0] : "data";
+        try {
+            migrate(new File(dataDirectory, "students.dat").getPath(), StudentCodec.INSTANCE);
+            migrate(new File(dataDirectory, "courses.dat").getPath(), CourseCodec.INSTANCE);
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("Migration failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Rewrites a Java-serialized file in the binary record format; returns false if there was nothing to do
+     */
+    public static <T> boolean migrate(String filename, RecordCodec<T> codec) throws IOException, ClassNotFoundException {
+        if (!FileUtil.fileExists(filename) || !FileUtil.isJavaSerializedFile(filename)) {
+            System.out.println(filename + ": already migrated or missing, skipped");
+            return false;
+        }
+
+        long oldSize = Files.size(Paths.get(filename));
+        List<T> records = FileUtil.loadFromFile(filename);
+        Files.copy(Paths.get(filename), Paths.get(filename + ".bak"), StandardCopyOption.REPLACE_EXISTING);
+        FileUtil.saveRecords(records, filename, codec);
+
+        // Read the new file back before declaring success
+        List<T> reloaded = FileUtil.loadRecords(filename, codec);
+        if (reloaded.size() != records.size()) {
+            Files.copy(Paths.get(filename + ".bak"), Paths.get(filename), StandardCopyOption.REPLACE_EXISTING);
+            throw new IOException(filename + ": read back " + reloaded.size() + " of " + records.size()
+                    + " " + codec.recordType() + " records, original restored");
+        }
+        long newSize = Files.size(Paths.get(filename));
+        System.out.println(filename + ": migrated " + records.size() + " " + codec.recordType()
+                + " records (" + oldSize + " -> " + newSize + " bytes)");
+        return true;
+    }
+}
@@ -1,17 +1,208 @@
 package Utils;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
 public class FileUtil {
+    // "SMSD": binary record file written by saveRecords
+    static final int RECORD_FILE_MAGIC = 0x534D5344;
+    static final int RECORD_FILE_FORMAT_VERSION = 1;
+    // "SMSI": marks the key -> offset directory at the end of a record file
+    static final int DIRECTORY_MAGIC = 0x534D5349;
+    static final int DIRECTORY_TRAILER_SIZE = 12;
+    // First bytes of a Java serialization stream, used by files written before saveRecords existed
+    private static final int JAVA_SERIALIZATION_MAGIC = 0xACED0005;
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+    // Windows cannot open a directory to sync it; NTFS orders its metadata updates itself
+    private static final boolean DIRECTORY_SYNC = !System.getProperty("os.name", "").startsWith("Windows");
+    // Timings and byte/record counts of every save and load, see Metrics
+    private static final Metrics METRICS = Metrics.component("FileUtil");
+    private static final OperationTimer SAVE_RECORDS = METRICS.timer("saveRecords");
+    private static final OperationTimer LOAD_RECORDS = METRICS.timer("loadRecords");
+    private static final OperationTimer SAVE_TO_FILE = METRICS.timer("saveToFile");
+    private static final OperationTimer LOAD_FROM_FILE = METRICS.timer("loadFromFile");
     
     /**
-     * Saves a list of objects to a file using serialization
+     * Saves records in the binary record format:
+     * [magic][header length][header: format version, record type, schema version, record count]
+     * followed by one [varint length][bytes] entry per record, then a directory
+     * [count][(key, offset) sorted by key] and a trailer [directory offset][directory magic]
+     * that LazyRecordFile uses for random access. Readers that only know the records
+     * stop after record count entries and never see the directory.
+     * Written to a temporary file first and then moved over the target; durable once
+     * this returns (see moveIntoPlace).
+     */
+    public static <T> void saveRecords(List<T> records, String filename, RecordCodec<T> codec) throws IOException {
+        long start = SAVE_RECORDS.start();
+        try {
+            Path target = Paths.get(filename);
+            Path temp = Paths.get(filename + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp.toFile()), IO_BUFFER_SIZE))) {
+                RecordWriter header = new RecordWriter(64);
+                header.writeInt(RECORD_FILE_FORMAT_VERSION);
+                header.writeString(codec.recordType());
+                header.writeInt(codec.schemaVersion());
+                header.writeInt(records.size());
+                out.writeInt(RECORD_FILE_MAGIC);
+                out.writeInt(header.size());
+                out.write(header.array(), 0, header.size());
+                long position = 8 + header.size();
+            
+                long[] keys = new long[records.size()];
+                long[] offsets = new long[records.size()];
+                RecordWriter writer = new RecordWriter();
+                int index = 0;
+                for (T record : records) {
+                    writer.reset();
+                    codec.encode(record, writer);
+                    keys[index] = codec.directoryKey(record);
+                    offsets[index] = position;
+                    index++;
+                    position += writeVarInt(out, writer.size());
+                    out.write(writer.array(), 0, writer.size());
+                    position += writer.size();
+                }
+            
+                LazyRecordFile.sortByKey(keys, offsets);
+                out.writeInt(keys.length);
+                for (int i = 0; i < keys.length; i++) {
+                    out.writeLong(keys[i]);
+                    out.writeLong(offsets[i]);
+                }
+                out.writeLong(position);
+                out.writeInt(DIRECTORY_MAGIC);
+            }
+            moveIntoPlace(temp, target);
+            countWrite(target, records.size());
+        } finally {
+            SAVE_RECORDS.stop(start);
+        }
+    }
+    
+    /**
+     * Loads records written by saveRecords. Files still in the old Java serialization
+     * format are read with loadFromFile, so they are migrated on the next save.
+     */
+    public static <T> List<T> loadRecords(String filename, RecordCodec<T> codec) throws IOException, ClassNotFoundException {
+        long start = LOAD_RECORDS.start();
+        try {
+            File file = new File(filename);
+            if (!file.exists()) {
+                return new ArrayList<>();
+            }
+            if (isJavaSerializedFile(filename)) {
+                return loadFromFile(filename);
+            }
+        
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(file), IO_BUFFER_SIZE))) {
+                if (in.readInt() != RECORD_FILE_MAGIC) {
+                    throw new IOException("Unknown file format: " + filename);
+                }
+                byte[] headerBytes = new byte[in.readInt()];
+                in.readFully(headerBytes);
+                RecordReader header = new RecordReader(headerBytes, 0, headerBytes.length);
+                int formatVersion = header.readInt();
+                if (formatVersion > RECORD_FILE_FORMAT_VERSION) {
+                    throw new IOException("Unsupported record file version " + formatVersion + ": " + filename);
+                }
+                String recordType = header.readString();
+                if (!codec.recordType().equals(recordType)) {
+                    throw new IOException("Expected " + codec.recordType() + " records but found " + recordType + ": " + filename);
+                }
+                int schemaVersion = header.readInt();
+                int recordCount = header.readInt();
+            
+                List<T> records = new ArrayList<>(recordCount);
+                RecordReader reader = new RecordReader();
+                byte[] buffer = new byte[256];
+                for (int i = 0; i < recordCount; i++) {
+                    int length = readVarInt(in);
+                    if (length > buffer.length) {
+                        buffer = new byte[Math.max(length, buffer.length * 2)];
+                    }
+                    in.readFully(buffer, 0, length);
+                    reader.reset(buffer, 0, length);
+                    records.add(codec.decode(reader, schemaVersion));
+                }
+                METRICS.addBytesRead(file.length());
+                METRICS.addRecordsRead(recordCount);
+                return records;
+            }
+        } finally {
+            LOAD_RECORDS.stop(start);
+        }
+    }
+    
+    private static int writeVarInt(DataOutputStream out, int value) throws IOException {
+        int bytes = 1;
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+            bytes++;
+        }
+        out.writeByte(value);
+        return bytes;
+    }
+    
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed record length");
+    }
+    
+    /**
+     * Checks whether a file was written with Java object serialization
+     */
+    public static boolean isJavaSerializedFile(String filename) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filename))) {
+            return in.readInt() == JAVA_SERIALIZATION_MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+    
+
+    /**
+     * Saves a list of objects to a file using serialization.
+     * The list is written to a temporary file first and then moved over the target,
+     * so a crash mid-write never leaves a half-written snapshot behind.
+     * Durable once this returns (see moveIntoPlace).
      */
     public static <T> void saveToFile(List<T> objects, String filename) throws IOException {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(objects);
+        long start = SAVE_TO_FILE.start();
+        try {
+            Path target = Paths.get(filename);
+            Path temp = Paths.get(filename + ".tmp");
+            try (ObjectOutputStream oos = new ObjectOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp.toFile())))) {
+                oos.writeObject(objects);
+            }
+            moveIntoPlace(temp, target);
+            countWrite(target, objects.size());
+        } finally {
+            SAVE_TO_FILE.stop(start);
+        }
+    }
+    
+    private static void countWrite(Path file, int records) throws IOException {
+        if (Metrics.isEnabled()) {
+            METRICS.addBytesWritten(Files.size(file));
+            METRICS.addRecordsWritten(records);
         }
     }
     
@@ -20,13 +211,21 @@ public class FileUtil {
      */
     @SuppressWarnings("unchecked")
     public static <T> List<T> loadFromFile(String filename) throws IOException, ClassNotFoundException {
-        File file = new File(filename);
-        if (!file.exists()) {
-            return new ArrayList<>();
-        }
+        long start = LOAD_FROM_FILE.start();
+        try {
+            File file = new File(filename);
+            if (!file.exists()) {
+                return new ArrayList<>();
+            }
         
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-            return (List<T>) ois.readObject();
+            try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+                List<T> objects = (List<T>) ois.readObject();
+                METRICS.addBytesRead(file.length());
+                METRICS.addRecordsRead(objects.size());
+                return objects;
+            }
+        } finally {
+            LOAD_FROM_FILE.stop(start);
         }
     }
     
@@ -74,4 +273,40 @@ public class FileUtil {
     public static boolean fileExists(String filename) {
         return new File(filename).exists();
     }
+    
+    /**
+     * Replaces target with source, atomically where the file system allows it. The
+     * source is forced to disk before the rename and the directory after it, so once
+     * this returns the target holds the new contents even across a power loss, and a
+     * journal covering the old contents may be dropped.
+     */
+    public static void moveIntoPlace(Path source, Path target) throws IOException {
+        force(source);
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+    
+    /**
+     * Forces the contents of a file to disk
+     */
+    public static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+    
+    /**
+     * Makes the renames, creations and deletions done in a directory durable
+     */
+    public static void syncDirectory(Path directory) throws IOException {
+        if (DIRECTORY_SYNC && directory != null) {
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            }
+        }
+    }
 }
@@ -0,0 +1,268 @@
+package Utils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of record mutations kept next to a snapshot file.
+ * Every entry is framed as [length][crc32][op][schema version][payload] so that a
+ * torn tail left behind by a crash is detected on replay and cut off. PUT entries
+ * carry the full record encoded with the record codec, REMOVE entries its key.
+ *
+ * Appended entries are buffered in memory until flush(), so a caller can group
+ * several entries into a single write. sync() forces the file without holding the
+ * journal's lock, so entries can be appended while another thread waits on the disk.
+ */
+public class Journal<T> implements Closeable {
+    public static final byte PUT = 1;
+    public static final byte REMOVE = 2;
+
+    private static final int FRAME_HEADER_SIZE = 8;
+    private static final int ENTRY_HEADER_SIZE = 5;
+    // Write and fsync timings and bytes appended, over all journals
+    private static final Metrics METRICS = Metrics.component("Journal");
+    private static final OperationTimer FLUSH = METRICS.timer("flush");
+    private static final OperationTimer SYNC = METRICS.timer("sync");
+
+    private final Path path;
+    private final RecordCodec<T> codec;
+    private final RecordWriter pending = new RecordWriter(4096);
+    private final RecordWriter entry = new RecordWriter();
+    private FileChannel channel;
+    // False while the directory entry of a newly created file may not be on disk yet
+    private boolean linked;
+    private int entryCount;
+    private int pendingEntries;
+    // Incremented by reset(), which follows a checkpoint that made every entry durable
+    private long resets;
+
+    public Journal(String filename, RecordCodec<T> codec) {
+        this.path = Paths.get(filename);
+        this.codec = codec;
+    }
+
+    /**
+     * Replays every intact entry in order and truncates anything after the last valid frame
+     */
+    public synchronized int replay(Consumer<T> onPut, Consumer<String> onRemove) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        long validLength = 0;
+        int replayed = 0;
+        RecordReader reader = new RecordReader();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                int length;
+                int checksum;
+                byte[] frame;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < ENTRY_HEADER_SIZE) {
+                        break;
+                    }
+                    frame = new byte[length];
+                    in.readFully(frame);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (crc(frame, length) != checksum) {
+                    break;
+                }
+                if (isLegacyEntry(frame)) {
+                    replayLegacyEntry(frame, onPut, onRemove);
+                } else {
+                    reader.reset(frame, 1, length - 1);
+                    int schemaVersion = reader.readInt();
+                    if (frame[0] == PUT) {
+                        onPut.accept(codec.decode(reader, schemaVersion));
+                    } else if (frame[0] == REMOVE) {
+                        onRemove.accept(reader.readString());
+                    }
+                }
+                validLength += FRAME_HEADER_SIZE + length;
+                replayed++;
+            }
+        }
+
+        if (validLength < Files.size(path)) {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                ch.truncate(validLength);
+            }
+        }
+        entryCount = replayed;
+        return replayed;
+    }
+
+    /**
+     * Buffers an entry recording the full new state of a record
+     */
+    public synchronized void appendPut(T record) {
+        entry.reset();
+        entry.writeByte(PUT);
+        entry.writeInt(codec.schemaVersion());
+        codec.encode(record, entry);
+        appendFrame();
+    }
+
+    /**
+     * Buffers an entry recording the removal of the record with the given key
+     */
+    public synchronized void appendRemove(String key) {
+        entry.reset();
+        entry.writeByte(REMOVE);
+        entry.writeInt(codec.schemaVersion());
+        entry.writeString(key);
+        appendFrame();
+    }
+
+    private void appendFrame() {
+        pending.writeInt(entry.size());
+        pending.writeInt(crc(entry.array(), entry.size()));
+        pending.writeBytes(entry.array(), 0, entry.size());
+        entryCount++;
+        pendingEntries++;
+    }
+
+    /**
+     * Writes all buffered entries to the file in a single write
+     */
+    public synchronized void flush() throws IOException {
+        if (pending.size() == 0) {
+            return;
+        }
+        long start = FLUSH.start();
+        ByteBuffer buffer = ByteBuffer.wrap(pending.array(), 0, pending.size());
+        FileChannel ch = openChannel();
+        while (buffer.hasRemaining()) {
+            ch.write(buffer);
+        }
+        FLUSH.stop(start);
+        METRICS.addBytesWritten(pending.size());
+        METRICS.addRecordsWritten(pendingEntries);
+        pending.reset();
+        pendingEntries = 0;
+    }
+
+    /**
+     * Drops buffered entries that have not been written, e.g. after their write failed
+     */
+    public synchronized void discardPending() {
+        pending.reset();
+        entryCount -= pendingEntries;
+        pendingEntries = 0;
+    }
+
+    /**
+     * Forces appended entries down to the storage device
+     */
+    public void sync() throws IOException {
+        FileChannel ch;
+        boolean link;
+        long generation;
+        synchronized (this) {
+            flush();
+            ch = channel;
+            link = !linked;
+            generation = resets;
+        }
+        if (ch == null) {
+            return;
+        }
+        long start = SYNC.start();
+        try {
+            ch.force(false);
+            if (link) {
+                FileUtil.syncDirectory(path.toAbsolutePath().getParent());
+            }
+        } catch (ClosedChannelException e) {
+            synchronized (this) {
+                if (resets != generation) {
+                    return; // Reset meanwhile: the entries are in the snapshot already
+                }
+            }
+            throw e;
+        }
+        synchronized (this) {
+            if (link && resets == generation) {
+                linked = true;
+            }
+        }
+        SYNC.stop(start);
+    }
+
+    /**
+     * Discards all entries; called once they have been folded into a snapshot
+     */
+    public synchronized void reset() throws IOException {
+        pending.reset();
+        pendingEntries = 0;
+        close();
+        Files.deleteIfExists(path);
+        entryCount = 0;
+        resets++;
+    }
+
+    /**
+     * Number of entries appended since the last reset
+     */
+    public synchronized int getEntryCount() {
+        return entryCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            linked = Files.exists(path);
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    /**
+     * Entries written before the binary codec hold a Java serialization stream after the op byte
+     */
+    private static boolean isLegacyEntry(byte[] frame) {
+        return frame.length > 2 && (frame[1] & 0xFF) == 0xAC && (frame[2] & 0xFF) == 0xED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void replayLegacyEntry(byte[] frame, Consumer<T> onPut, Consumer<String> onRemove)
+            throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(frame, 1, frame.length - 1))) {
+            Object payload = ois.readObject();
+            if (frame[0] == PUT) {
+                onPut.accept((T) payload);
+            } else if (frame[0] == REMOVE) {
+                onRemove.accept(String.valueOf(payload));
+            }
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unreadable legacy journal entry", e);
+        }
+    }
+
+    private static int crc(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+}
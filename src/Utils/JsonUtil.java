@@ -0,0 +1,221 @@
+package Utils;
+
+import Models.Course;
+import Models.Student;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal JSON support for the record types: writing students and courses as objects,
+ * and reading flat objects whose values are strings, numbers, booleans or null.
+ */
+public class JsonUtil {
+
+    /**
+     * Appends a student as one JSON object, including its enrolled courses
+     */
+    public static void appendStudent(StringBuilder out, Student student) {
+        out.append("{\"id\":").append(student.getId());
+        out.append(",\"name\":");
+        appendString(out, student.getName());
+        out.append(",\"email\":");
+        appendString(out, student.getEmail());
+        out.append(",\"age\":").append(student.getAge());
+        out.append(",\"major\":");
+        appendString(out, student.getMajor());
+        out.append(",\"gpa\":").append(student.getGpa());
+        out.append(",\"enrolledCourses\":[");
+        // One pass over one copy of the enrollments, which a concurrent drop may replace
+        int first = out.length();
+        student.forEachEnrolledCourse(courseId -> {
+            if (out.length() > first) {
+                out.append(',');
+            }
+            appendString(out, courseId);
+        });
+        out.append("]}");
+    }
+
+    /**
+     * Appends a course as one JSON object, including its current enrollment
+     */
+    public static void appendCourse(StringBuilder out, Course course) {
+        out.append("{\"courseId\":");
+        appendString(out, course.getCourseId());
+        out.append(",\"courseName\":");
+        appendString(out, course.getCourseName());
+        out.append(",\"credits\":").append(course.getCredits());
+        out.append(",\"instructor\":");
+        appendString(out, course.getInstructor());
+        out.append(",\"maxCapacity\":").append(course.getMaxCapacity());
+        out.append(",\"currentEnrollment\":").append(course.getCurrentEnrollment());
+        out.append('}');
+    }
+
+    /**
+     * Appends a value as a quoted JSON string; null becomes null
+     */
+    public static void appendString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Parses one flat JSON object. Values come back as text: strings unescaped, numbers
+     * and booleans as written, null as null. Nested objects and arrays are rejected.
+     */
+    public static Map<String, String> parseObject(String json) {
+        Parser parser = new Parser(json);
+        Map<String, String> fields = new LinkedHashMap<>();
+        parser.expect('{');
+        if (!parser.consume('}')) {
+            do {
+                String name = parser.string();
+                parser.expect(':');
+                fields.put(name, parser.value());
+            } while (parser.consume(','));
+            parser.expect('}');
+        }
+        parser.end();
+        return fields;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        boolean consume(char c) {
+            skipSpace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw error("expected '" + c + "'");
+            }
+        }
+
+        void end() {
+            skipSpace();
+            if (position < text.length()) {
+                throw error("unexpected text after object");
+            }
+        }
+
+        String value() {
+            skipSpace();
+            if (position >= text.length()) {
+                throw error("missing value");
+            }
+            char c = text.charAt(position);
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                throw error("nested values are not supported");
+            }
+            int start = position;
+            while (position < text.length() && "-+.eE0123456789truefalsn".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (literal.isEmpty() || (!literal.equals("true") && !literal.equals("false") && !isNumber(literal))) {
+                throw error("invalid value");
+            }
+            return literal;
+        }
+
+        String string() {
+            skipSpace();
+            if (position >= text.length() || text.charAt(position) != '"') {
+                throw error("expected a string");
+            }
+            position++;
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw error("bad unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("bad unicode escape");
+                        }
+                        position += 4;
+                        break;
+                    default: value.append(escaped);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private static boolean isNumber(String literal) {
+            try {
+                Double.parseDouble(literal);
+                return Character.isDigit(literal.charAt(literal.length() - 1));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private void skipSpace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position);
+        }
+    }
+}
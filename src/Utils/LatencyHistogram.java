@@ -0,0 +1,130 @@
+package Utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of durations in nanoseconds with log-linear buckets: eight
+ * buckets per power of two, so any recorded value is reported within 12.5%.
+ *
+ * Recording is one atomic increment on a stripe picked by thread, so threads timing
+ * the same operation rarely touch the same cache line. Reading sums the stripes and
+ * is meant for the occasional report, not the hot path.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Values from 2^MAX_EXPONENT ns (about 18 minutes) up share the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+    // Bucket counts, then the running maximum, padded so stripes do not share a cache line
+    private static final int STRIDE = BUCKETS + 16;
+    private static final int MAX_SLOT = BUCKETS;
+
+    private final int stripeMask;
+    private final AtomicLongArray counts;
+
+    public LatencyHistogram() {
+        int stripes = Integer.highestOneBit(Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())));
+        stripeMask = stripes - 1;
+        counts = new AtomicLongArray(stripes * STRIDE);
+    }
+
+    public void record(long nanos) {
+        int base = ((int) Thread.currentThread().getId() & stripeMask) * STRIDE;
+        counts.incrementAndGet(base + bucketOf(Math.max(0, nanos)));
+        long max = counts.get(base + MAX_SLOT);
+        while (nanos > max && !counts.compareAndSet(base + MAX_SLOT, max, nanos)) {
+            max = counts.get(base + MAX_SLOT);
+        }
+    }
+
+    /**
+     * Current counts, summed over the stripes
+     */
+    public Snapshot snapshot() {
+        long[] buckets = new long[BUCKETS];
+        long total = 0;
+        long max = 0;
+        for (int base = 0; base < counts.length(); base += STRIDE) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long count = counts.get(base + i);
+                buckets[i] += count;
+                total += count;
+            }
+            max = Math.max(max, counts.get(base + MAX_SLOT));
+        }
+        return new Snapshot(buckets, total, max);
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Middle of the range of values counted in bucket
+     */
+    static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        long low = (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+        return low + width / 2;
+    }
+
+    /**
+     * Counts at one point in time
+     */
+    public static class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long max;
+
+        Snapshot(long[] buckets, long count, long max) {
+            this.buckets = buckets;
+            this.count = count;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxNanos() {
+            return max;
+        }
+
+        /**
+         * Duration that percentile percent of the recorded values do not exceed (approximately)
+         */
+        public long percentileNanos(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min(valueOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
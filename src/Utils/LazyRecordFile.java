@@ -0,0 +1,260 @@
+package Utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Random-access view of a record file written by FileUtil.saveRecords.
+ * Opening reads only the header and the key -> offset directory; records are
+ * decoded on demand from file pages held in a bounded LRU page cache.
+ *
+ * Thread safe, and lookups run concurrently: only the page cache bookkeeping is
+ * locked, while pages are read and records decoded outside the lock.
+ */
+public class LazyRecordFile<T> implements Closeable {
+    private final FileChannel channel;
+    private final RecordCodec<T> codec;
+    private final int schemaVersion;
+    private final int recordCount;
+    private final long[] keys;
+    private final long[] offsets;
+    private final int pageSize;
+    // Guarded by itself
+    private final Map<Long, byte[]> pageCache;
+    private long pageHits;
+    private long pageMisses;
+
+    private LazyRecordFile(FileChannel channel, RecordCodec<T> codec, int schemaVersion, int recordCount,
+                           long[] keys, long[] offsets, int pageSize, int maxPages) {
+        this.channel = channel;
+        this.codec = codec;
+        this.schemaVersion = schemaVersion;
+        this.recordCount = recordCount;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.pageSize = pageSize;
+        this.pageCache = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Opens a record file for lazy access. Returns null if the file is missing or
+     * has no directory (for example a file still in the old serialization format).
+     */
+    public static <T> LazyRecordFile<T> open(String filename, RecordCodec<T> codec, int pageSize, int maxPages)
+            throws IOException {
+        Path path = Paths.get(filename);
+        if (!Files.exists(path) || FileUtil.isJavaSerializedFile(filename)) {
+            return null;
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer prefix = readFully(channel, 0, 8);
+            if (prefix.getInt() != FileUtil.RECORD_FILE_MAGIC) {
+                throw new IOException("Unknown file format: " + filename);
+            }
+            byte[] headerBytes = readFully(channel, 8, prefix.getInt()).array();
+            RecordReader header = new RecordReader(headerBytes, 0, headerBytes.length);
+            int formatVersion = header.readInt();
+            String recordType = header.readString();
+            int schemaVersion = header.readInt();
+            int recordCount = header.readInt();
+            if (formatVersion > FileUtil.RECORD_FILE_FORMAT_VERSION || !codec.recordType().equals(recordType)) {
+                throw new IOException("Unexpected record file header: " + filename);
+            }
+
+            if (size < FileUtil.DIRECTORY_TRAILER_SIZE) {
+                channel.close();
+                return null;
+            }
+            ByteBuffer trailer = readFully(channel, size - FileUtil.DIRECTORY_TRAILER_SIZE, FileUtil.DIRECTORY_TRAILER_SIZE);
+            long directoryOffset = trailer.getLong();
+            if (trailer.getInt() != FileUtil.DIRECTORY_MAGIC) {
+                channel.close();
+                return null;
+            }
+            int entries = readFully(channel, directoryOffset, 4).getInt();
+            ByteBuffer directory = readFully(channel, directoryOffset + 4, entries * 16);
+            long[] keys = new long[entries];
+            long[] offsets = new long[entries];
+            for (int i = 0; i < entries; i++) {
+                keys[i] = directory.getLong();
+                offsets[i] = directory.getLong();
+            }
+            return new LazyRecordFile<>(channel, codec, schemaVersion, recordCount, keys, offsets, pageSize, maxPages);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Number of records in the file
+     */
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Decodes the record stored under key that satisfies matches, or returns null
+     */
+    public T find(long key, Predicate<T> matches) throws IOException {
+        int low = 0;
+        int high = keys.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < keys.length && keys[i] == key; i++) {
+            T record = readRecord(offsets[i]);
+            if (matches.test(record)) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    public long getPageHits() {
+        synchronized (pageCache) {
+            return pageHits;
+        }
+    }
+
+    public long getPageMisses() {
+        synchronized (pageCache) {
+            return pageMisses;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (pageCache) {
+            pageCache.clear();
+        }
+        channel.close();
+    }
+
+    private T readRecord(long offset) throws IOException {
+        int length = 0;
+        long position = offset;
+        for (int shift = 0; ; shift += 7) {
+            int b = readByte(position++);
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long pageNumber = (position + copied) / pageSize;
+            int pageOffset = (int) ((position + copied) % pageSize);
+            byte[] page = page(pageNumber);
+            int chunk = Math.min(length - copied, page.length - pageOffset);
+            if (chunk <= 0) {
+                throw new IOException("Record extends past end of file");
+            }
+            System.arraycopy(page, pageOffset, bytes, copied, chunk);
+            copied += chunk;
+        }
+        return codec.decode(new RecordReader(bytes, 0, length), schemaVersion);
+    }
+
+    private int readByte(long position) throws IOException {
+        byte[] page = page(position / pageSize);
+        int pageOffset = (int) (position % pageSize);
+        if (pageOffset >= page.length) {
+            throw new IOException("Record extends past end of file");
+        }
+        return page[pageOffset] & 0xFF;
+    }
+
+    private byte[] page(long pageNumber) throws IOException {
+        synchronized (pageCache) {
+            byte[] page = pageCache.get(pageNumber);
+            if (page != null) {
+                pageHits++;
+                return page;
+            }
+            pageMisses++;
+        }
+        // Two threads missing the same page may both read it; the copies are identical
+        long start = pageNumber * pageSize;
+        int length = (int) Math.min(pageSize, channel.size() - start);
+        byte[] page = readFully(channel, start, Math.max(length, 0)).array();
+        synchronized (pageCache) {
+            pageCache.put(pageNumber, page);
+        }
+        return page;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Sorts keys ascending, moving values along with them
+     */
+    static void sortByKey(long[] keys, long[] values) {
+        quickSort(keys, values, 0, keys.length - 1);
+    }
+
+    private static void quickSort(long[] keys, long[] values, int low, int high) {
+        while (low < high) {
+            long pivot = keys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    long key = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = key;
+                    long value = values[i];
+                    values[i] = values[j];
+                    values[j] = value;
+                    i++;
+                    j--;
+                }
+            }
+            // Recurse into the smaller half to bound stack depth
+            if (j - low < high - i) {
+                quickSort(keys, values, low, j);
+                low = i;
+            } else {
+                quickSort(keys, values, i, high);
+                high = j;
+            }
+        }
+    }
+}
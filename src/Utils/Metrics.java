@@ -0,0 +1,176 @@
+package Utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Operation metrics of one component, such as StudentDAO: a timer per operation plus
+ * counts of bytes and records persisted and loaded. Components are shared by name, so
+ * every StudentDAO in the process reports into the same metrics.
+ *
+ * Each component and timer is registered as an MBean under
+ * StudentManagement:type=component[,operation=name], so it can be watched with
+ * jconsole or any JMX client; report() renders the same numbers as text.
+ *
+ * On by default; start the JVM with -Dsms.metrics=false (or call setEnabled) to turn
+ * recording off, which leaves one volatile read per timed call.
+ */
+public class Metrics implements MetricsMBean {
+    private static final String DOMAIN = "StudentManagement";
+    private static final Map<String, Metrics> COMPONENTS = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = !"false".equals(System.getProperty("sms.metrics"));
+
+    private final String component;
+    private final Map<String, OperationTimer> timers = new ConcurrentHashMap<>();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder recordsWritten = new LongAdder();
+    private final LongAdder recordsRead = new LongAdder();
+
+    private Metrics(String component) {
+        this.component = component;
+    }
+
+    /**
+     * Metrics of the named component, registered with JMX on first use
+     */
+    public static Metrics component(String component) {
+        return COMPONENTS.computeIfAbsent(component, name -> {
+            Metrics metrics = new Metrics(name);
+            register(metrics, "type=" + name);
+            return metrics;
+        });
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Timer of an operation of this component, timing every call
+     */
+    public OperationTimer timer(String operation) {
+        return timer(operation, 1);
+    }
+
+    /**
+     * Timer of an operation of this component, timing about one call in sampleInterval;
+     * for operations fast enough that reading the clock would be a noticeable part
+     */
+    public OperationTimer timer(String operation, int sampleInterval) {
+        return timers.computeIfAbsent(operation, name -> {
+            OperationTimer timer = new OperationTimer(name, sampleInterval);
+            register(timer, "type=" + component + ",operation=" + name);
+            return timer;
+        });
+    }
+
+    public void addBytesWritten(long bytes) {
+        if (enabled) {
+            bytesWritten.add(bytes);
+        }
+    }
+
+    public void addBytesRead(long bytes) {
+        if (enabled) {
+            bytesRead.add(bytes);
+        }
+    }
+
+    public void addRecordsWritten(long records) {
+        if (enabled) {
+            recordsWritten.add(records);
+        }
+    }
+
+    public void addRecordsRead(long records) {
+        if (enabled) {
+            recordsRead.add(records);
+        }
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getRecordsWritten() {
+        return recordsWritten.sum();
+    }
+
+    @Override
+    public long getRecordsRead() {
+        return recordsRead.sum();
+    }
+
+    @Override
+    public void reset() {
+        bytesWritten.reset();
+        bytesRead.reset();
+        recordsWritten.reset();
+        recordsRead.reset();
+        timers.values().forEach(OperationTimer::reset);
+    }
+
+    /**
+     * Text report of every component: counters, then one line per operation that was called
+     */
+    public static String report() {
+        StringBuilder out = new StringBuilder();
+        List<String> names = new ArrayList<>(COMPONENTS.keySet());
+        names.sort(null);
+        for (String name : names) {
+            Metrics metrics = COMPONENTS.get(name);
+            out.append(String.format("%s: %,d bytes written, %,d bytes read, %,d records written, %,d records read%n",
+                    name, metrics.getBytesWritten(), metrics.getBytesRead(),
+                    metrics.getRecordsWritten(), metrics.getRecordsRead()));
+            List<String> operations = new ArrayList<>(metrics.timers.keySet());
+            operations.sort(null);
+            for (String operation : operations) {
+                OperationTimer timer = metrics.timers.get(operation);
+                long calls = timer.getCount();
+                if (calls == 0) {
+                    continue;
+                }
+                LatencyHistogram.Snapshot latencies = timer.snapshot();
+                out.append(String.format("  %-30s %,12d calls   p50 %10.1f us   p99 %10.1f us   p999 %10.1f us   max %10.1f us%n",
+                        operation, calls, latencies.percentileNanos(50) / 1000.0, latencies.percentileNanos(99) / 1000.0,
+                        latencies.percentileNanos(99.9) / 1000.0, latencies.getMaxNanos() / 1000.0));
+            }
+        }
+        if (!enabled) {
+            out.append("(metrics are turned off)").append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+
+    private static void register(Object mbean, String properties) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DOMAIN + ":" + properties);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(mbean, name);
+            }
+        } catch (JMException | RuntimeException e) {
+            // Metrics still work without JMX, only the MBean view is missing
+            System.err.println("Error registering MBean " + properties + ": " + e.getMessage());
+        }
+    }
+}
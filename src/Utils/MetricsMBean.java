@@ -0,0 +1,16 @@
+package Utils;
+
+/**
+ * JMX view of the counters of one component (a DAO or FileUtil)
+ */
+public interface MetricsMBean {
+    long getBytesWritten();
+
+    long getBytesRead();
+
+    long getRecordsWritten();
+
+    long getRecordsRead();
+
+    void reset();
+}
@@ -0,0 +1,297 @@
+package Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Case-insensitive substring search over a text field, maintained by a DAO on every
+ * mutation like SecondaryIndex.
+ *
+ * Every trigram of a record's lowercased text maps to a sorted array of record
+ * handles (a unique int per record, such as the student ID). A query is answered by
+ * intersecting the handle arrays of its trigrams, rarest first, and checking the few
+ * candidates left against the full query; queries shorter than a trigram fall back
+ * to a scan of the stored lowercased texts. Each text also gets two grams anchored
+ * at its start, so prefixes of any length are found through the same postings.
+ *
+ * The text each record was indexed under is remembered, so a record that was
+ * mutated in place can still be removed.
+ */
+public class NGramIndex<T> {
+    private static final int GRAM = 3;
+    // Pads the start of a text for its anchored grams
+    private static final char ANCHOR = '\0';
+
+    private final ToIntFunction<T> handleOf;
+    private final Function<T, String> textOf;
+    // Trigram code -> handles of the records containing it, sorted
+    private final IntObjectHashMap<Postings> postings = new IntObjectHashMap<>();
+    // Handle -> record and the lowercased text it was indexed under
+    private final IntObjectHashMap<Entry<T>> entries = new IntObjectHashMap<>();
+
+    public NGramIndex(ToIntFunction<T> handleOf, Function<T, String> textOf) {
+        this.handleOf = handleOf;
+        this.textOf = textOf;
+    }
+
+    public void add(T item) {
+        String value = textOf.apply(item);
+        if (value == null) {
+            return;
+        }
+        int handle = handleOf.applyAsInt(item);
+        String text = normalize(value);
+        Entry<T> previous = entries.put(handle, new Entry<>(item, handle, text));
+        if (previous != null) {
+            unindex(handle, previous);
+        }
+        for (int code : grams(text, true)) {
+            Postings list = postings.get(code);
+            if (list == null) {
+                list = new Postings();
+                postings.put(code, list);
+            }
+            list.add(handle);
+        }
+    }
+
+    public void remove(T item) {
+        int handle = handleOf.applyAsInt(item);
+        Entry<T> entry = entries.get(handle);
+        if (entry != null && entry.item == item) {
+            entries.remove(handle);
+            unindex(handle, entry);
+        }
+    }
+
+    private void unindex(int handle, Entry<T> entry) {
+        for (int code : grams(entry.text, true)) {
+            Postings list = postings.get(code);
+            if (list != null && list.remove(handle) && list.size == 0) {
+                postings.remove(code);
+            }
+        }
+    }
+
+    /**
+     * Records whose text contains query, ignoring case, ordered by handle
+     */
+    public List<T> search(String query) {
+        String needle = normalize(query);
+        List<T> matches = new ArrayList<>();
+        if (needle.length() < GRAM) {
+            List<Entry<T>> found = new ArrayList<>();
+            entries.forEachValue(entry -> {
+                if (entry.text.contains(needle)) {
+                    found.add(entry);
+                }
+            });
+            found.sort((a, b) -> Integer.compare(handleOf.applyAsInt(a.item), handleOf.applyAsInt(b.item)));
+            for (Entry<T> entry : found) {
+                matches.add(entry.item);
+            }
+            return matches;
+        }
+
+        return match(grams(needle, false), text -> text.contains(needle), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Up to limit records whose text starts with prefix, ignoring case: the first ones
+     * by text, ties broken by handle
+     */
+    public List<T> complete(String prefix, int limit) {
+        String start = normalize(prefix);
+        if (start.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        int[] anchored = grams(start.substring(0, Math.min(2, start.length())), true);
+        int[] inner = grams(start, false);
+        int[] codes = Arrays.copyOf(inner, inner.length + 1);
+        codes[inner.length] = anchored[anchored.length - 1];
+        Comparator<Entry<T>> byText = Comparator.comparing((Entry<T> entry) -> entry.text)
+                .thenComparingInt(entry -> entry.handle);
+        // The best limit matches so far, worst on top
+        PriorityQueue<Entry<T>> best = new PriorityQueue<>(byText.reversed());
+        match(codes, text -> text.startsWith(start), entry -> {
+            if (best.size() < limit) {
+                best.add(entry);
+            } else if (byText.compare(entry, best.peek()) < 0) {
+                best.poll();
+                best.add(entry);
+            }
+            return true;
+        });
+        List<Entry<T>> found = new ArrayList<>(best);
+        found.sort(byText);
+        List<T> matches = new ArrayList<>(found.size());
+        for (Entry<T> entry : found) {
+            matches.add(entry.item);
+        }
+        return matches;
+    }
+
+    /**
+     * Intersects the postings of codes, rarest first, and keeps the records whose text
+     * passes verify, up to limit
+     */
+    private List<T> match(int[] codes, Predicate<String> verify, int limit) {
+        List<T> matches = new ArrayList<>();
+        if (limit > 0) {
+            match(codes, verify, entry -> {
+                matches.add(entry.item);
+                return matches.size() < limit;
+            });
+        }
+        return matches;
+    }
+
+    /**
+     * Intersects the postings of codes, rarest first, and hands each entry whose text
+     * passes verify to onMatch in handle order, until onMatch returns false
+     */
+    private void match(int[] codes, Predicate<String> verify, Predicate<Entry<T>> onMatch) {
+        Postings[] lists = new Postings[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            lists[i] = postings.get(codes[i]);
+            if (lists[i] == null) {
+                return;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        // Candidates come in increasing handle order, so each list is only ever searched forward
+        int[] cursors = new int[lists.length];
+        for (int i = 0; i < lists[0].size; i++) {
+            int handle = lists[0].handles[i];
+            boolean candidate = true;
+            for (int j = 1; j < lists.length && candidate; j++) {
+                cursors[j] = lists[j].seek(cursors[j], handle);
+                candidate = cursors[j] < lists[j].size && lists[j].handles[cursors[j]] == handle;
+            }
+            if (candidate) {
+                // Grams can match out of order or by code collision: confirm on the text
+                Entry<T> entry = entries.get(handle);
+                if (entry != null && verify.test(entry.text) && !onMatch.test(entry)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void clear() {
+        postings.clear();
+        entries.clear();
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Codes of the trigrams of text, and with anchored also of its first one and two
+     * characters padded with ANCHOR at the front
+     */
+    private static int[] grams(String text, boolean anchored) {
+        int inner = Math.max(0, text.length() - GRAM + 1);
+        int extra = anchored ? Math.min(2, text.length()) : 0;
+        int[] codes = new int[inner + extra];
+        for (int i = 0; i < inner; i++) {
+            codes[i] = gram(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+        if (extra > 0) {
+            codes[inner] = gram(ANCHOR, ANCHOR, text.charAt(0));
+        }
+        if (extra > 1) {
+            codes[inner + 1] = gram(ANCHOR, text.charAt(0), text.charAt(1));
+        }
+        return codes;
+    }
+
+    /**
+     * Packs a trigram into an int: exact for the first 1024 code points
+     */
+    private static int gram(char first, char second, char third) {
+        return ((first & 0x3FF) << 20) | ((second & 0x3FF) << 10) | (third & 0x3FF);
+    }
+
+    private static final class Entry<T> {
+        final T item;
+        final int handle;
+        final String text;
+
+        Entry(T item, int handle, String text) {
+            this.item = item;
+            this.handle = handle;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Sorted, growable array of handles
+     */
+    private static final class Postings {
+        int[] handles = new int[4];
+        int size;
+
+        /**
+         * Position of the first handle >= handle at or after from: gallops ahead, then
+         * searches the last step, so a walk through the list costs little per step
+         */
+        int seek(int from, int handle) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && handles[high] < handle) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            int at = Arrays.binarySearch(handles, low, high, handle);
+            return at >= 0 ? at : -at - 1;
+        }
+
+        void add(int handle) {
+            // Handles mostly arrive in increasing order, which makes this an append
+            if (size > 0 && handles[size - 1] >= handle) {
+                int at = Arrays.binarySearch(handles, 0, size, handle);
+                if (at >= 0) {
+                    return;
+                }
+                insert(-at - 1, handle);
+                return;
+            }
+            insert(size, handle);
+        }
+
+        boolean remove(int handle) {
+            int at = Arrays.binarySearch(handles, 0, size, handle);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(handles, at + 1, handles, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        private void insert(int at, int handle) {
+            if (size == handles.length) {
+                handles = Arrays.copyOf(handles, size * 2);
+            }
+            System.arraycopy(handles, at, handles, at + 1, size - at);
+            handles[at] = handle;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package Utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Call count and latency histogram of one operation. Usage:
+ *
+ *   long start = timer.start();
+ *   ... the operation ...
+ *   timer.stop(start);
+ *
+ * With a sample interval n above 1 only about one call in n, picked at random, is
+ * counted and timed, and the count is scaled up by n: this keeps clock reads and
+ * atomic updates off the fastest paths at the price of an estimated call count.
+ * When metrics are turned off (see Metrics.setEnabled) start and stop do nothing.
+ */
+public class OperationTimer implements OperationTimerMBean {
+    private final String name;
+    private final int sampleMask;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * sampleInterval is rounded down to a power of two
+     */
+    OperationTimer(String name, int sampleInterval) {
+        this.name = name;
+        this.sampleMask = Integer.highestOneBit(Math.max(1, sampleInterval)) - 1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Start time of this call if it is sampled, otherwise 0
+     */
+    public long start() {
+        if (!Metrics.isEnabled()
+                || (sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & sampleMask) != 0)) {
+            return 0;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(long start) {
+        if (start != 0) {
+            latencies.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Number of calls; an estimate for sampled timers
+     */
+    @Override
+    public long getCount() {
+        return latencies.snapshot().getCount() * (sampleMask + 1);
+    }
+
+    @Override
+    public long getTimedCount() {
+        return latencies.snapshot().getCount();
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latencies.snapshot().percentileNanos(50) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latencies.snapshot().percentileNanos(99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latencies.snapshot().percentileNanos(99.9) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latencies.snapshot().getMaxNanos() / 1000.0;
+    }
+
+    public LatencyHistogram.Snapshot snapshot() {
+        return latencies.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        latencies.reset();
+    }
+}
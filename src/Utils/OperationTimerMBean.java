@@ -0,0 +1,23 @@
+package Utils;
+
+/**
+ * JMX view of one timed operation; durations in microseconds
+ */
+public interface OperationTimerMBean {
+    /**
+     * Calls made, scaled up from the sampled calls for sampled timers
+     */
+    long getCount();
+
+    long getTimedCount();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,203 @@
+package Utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of query results in front of a DAO, evicting the least recently used
+ * entry when full.
+ *
+ * Every entry belongs to a region, the kind of data its query reads (for example the
+ * course list, or seat counts). A DAO invalidates a region after each mutation that
+ * touches that kind of data; the region's generation moves on and entries filled under
+ * an older generation are no longer served. A result computed while its region was
+ * invalidated is not stored, so a slow query can never put back stale data.
+ *
+ * Invalidating a region nothing was read from since its last invalidation costs one
+ * atomic read, so frequent mutations such as seat changes stay cheap.
+ */
+public class QueryCache<R extends Enum<R>> {
+    private final int capacity;
+    // Guarded by this; access ordered, so the eldest entry is the least recently used
+    private final LinkedHashMap<Key, Result> entries;
+    // Per region: current generation, and whether anything was read since the last bump
+    private final AtomicLongArray generations;
+    private final AtomicIntegerArray read;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public QueryCache(Class<R> regions, int capacity) {
+        int count = regions.getEnumConstants().length;
+        this.capacity = capacity;
+        this.generations = new AtomicLongArray(count);
+        this.read = new AtomicIntegerArray(count);
+        this.entries = new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+                if (size() > QueryCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached result of the query named by region, name and argument, or the loader's
+     * result, which is cached. Results are shared between callers: loaders should
+     * return unmodifiable values.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(R region, String name, Object argument, Supplier<V> loader) {
+        Key key = new Key(region, name, argument);
+        int slot = region.ordinal();
+        long generation = generations.get(slot);
+        synchronized (this) {
+            Result entry = entries.get(key);
+            if (entry != null && entry.generation == generation) {
+                hits++;
+                return (V) entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            misses++;
+        }
+        // Marked before loading: a mutation from here on bumps the generation
+        read.set(slot, 1);
+        V value = loader.get();
+        synchronized (this) {
+            if (generations.get(slot) == generation) {
+                entries.put(key, new Result(value, generation));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stops serving every entry of region; call after a mutation of its data
+     */
+    public void invalidate(R region) {
+        int slot = region.ordinal();
+        if (read.get(slot) != 0 && read.getAndSet(slot, 0) != 0) {
+            generations.incrementAndGet(slot);
+            synchronized (this) {
+                invalidations++;
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (int slot = 0; slot < generations.length(); slot++) {
+            read.set(slot, 0);
+            generations.incrementAndGet(slot);
+        }
+        synchronized (this) {
+            entries.clear();
+            invalidations++;
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, invalidations, entries.size(), capacity);
+    }
+
+    /**
+     * Counters since the cache was created
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+        private final int size;
+        private final int capacity;
+
+        public Stats(long hits, long misses, long evictions, long invalidations, int size, int capacity) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d (%.1f%% hits), evictions=%d, invalidations=%d, size=%d/%d",
+                    hits, misses, getHitRate() * 100, evictions, invalidations, size, capacity);
+        }
+    }
+
+    private static final class Key {
+        final Enum<?> region;
+        final String name;
+        final Object argument;
+
+        Key(Enum<?> region, String name, Object argument) {
+            this.region = region;
+            this.name = name;
+            this.argument = argument;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return region == key.region && name.equals(key.name) && Objects.equals(argument, key.argument);
+        }
+
+        @Override
+        public int hashCode() {
+            return (region.hashCode() * 31 + name.hashCode()) * 31 + Objects.hashCode(argument);
+        }
+    }
+
+    private static final class Result {
+        final Object value;
+        final long generation;
+
+        Result(Object value, long generation) {
+            this.value = value;
+            this.generation = generation;
+        }
+    }
+}
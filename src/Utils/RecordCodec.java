@@ -0,0 +1,39 @@
+package Utils;
+
+/**
+ * Hand-written binary encoding for one record type.
+ *
+ * Schema evolution rules:
+ * 1. Fields are only ever appended to the end of a record; existing fields are
+ *    never reordered, removed or retyped.
+ * 2. Appending fields bumps schemaVersion(). Each record is length-prefixed, so an
+ *    older reader simply ignores trailing bytes it does not know about.
+ * 3. decode() must accept every earlier version: fields added after the version
+ *    being read are left at their defaults (use RecordReader.hasRemaining()).
+ * 4. A change that cannot follow rule 1 needs a new recordType() and a migration.
+ */
+public interface RecordCodec<T> {
+
+    /**
+     * Name stored in file headers so that a file is never read with the wrong codec
+     */
+    String recordType();
+
+    /**
+     * Version of the field layout written by encode()
+     */
+    int schemaVersion();
+
+    void encode(T record, RecordWriter out);
+
+    /**
+     * Decodes a record written with the given schema version
+     */
+    T decode(RecordReader in, int schemaVersion);
+
+    /**
+     * 64-bit lookup key of a record for the directory at the end of a record file.
+     * Need not be unique; LazyRecordFile checks every record stored under a key.
+     */
+    long directoryKey(T record);
+}
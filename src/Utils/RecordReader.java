@@ -0,0 +1,88 @@
+package Utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the fields of one encoded record, the counterpart of RecordWriter.
+ * The reader is bounded by the record's length prefix, so hasRemaining() tells a
+ * codec whether fields appended by a newer schema version are present.
+ */
+public class RecordReader {
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    public RecordReader() {
+    }
+
+    public RecordReader(byte[] buffer, int offset, int length) {
+        reset(buffer, offset, length);
+    }
+
+    /**
+     * Points the reader at a new record without allocating
+     */
+    public void reset(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public int readByte() {
+        check(1);
+        return buffer[position++];
+    }
+
+    public int readInt() {
+        check(4);
+        int value = ((buffer[position] & 0xFF) << 24)
+                | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8)
+                | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    public long readLong() {
+        long high = readInt();
+        long low = readInt() & 0xFFFFFFFFL;
+        return (high << 32) | low;
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    public String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        check(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    private void check(int bytes) {
+        if (position + bytes > limit) {
+            throw new IllegalStateException("Record truncated: needed " + bytes + " more bytes");
+        }
+    }
+}
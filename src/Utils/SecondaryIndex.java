@@ -0,0 +1,255 @@
+package Utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * In-memory secondary index maintained by a DAO on every mutation.
+ * Maps a derived key to the records carrying it; lookups cost in proportion to
+ * the number of matches. A unique index additionally lets the DAO reject
+ * records whose key is already taken. A sorted index keeps its keys in order,
+ * so range queries and ordered listings also cost only the size of the result.
+ *
+ * As in NGramIndex, the key each record was indexed under is remembered by its
+ * handle (a unique int per record, such as the student ID), so a record that was
+ * mutated in place is still removed with one lookup. A handle is indexed at most
+ * once: remove its record before adding it again.
+ */
+public class SecondaryIndex<T, K> {
+    private final ToIntFunction<T> handleOf;
+    private final Function<T, K> keyExtractor;
+    private final boolean unique;
+    // A unique index maps each key straight to its record, the others to a bucket of records
+    private final Map<K, T> records;
+    private final Map<K, Set<T>> entries;
+    // Handle -> the key its record was indexed under
+    private final IntObjectHashMap<K> indexedKeys = new IntObjectHashMap<>();
+
+    private SecondaryIndex(ToIntFunction<T> handleOf, Function<T, K> keyExtractor, boolean unique,
+                           Comparator<? super K> order) {
+        this.handleOf = handleOf;
+        this.keyExtractor = keyExtractor;
+        this.unique = unique;
+        this.records = unique ? new HashMap<>() : null;
+        this.entries = unique ? null : order == null ? new HashMap<>() : new TreeMap<>(order);
+    }
+
+    /**
+     * Declares an index where each key may belong to at most one record; if records
+     * sharing a key are added anyway, the first one keeps it
+     */
+    public static <T, K> SecondaryIndex<T, K> unique(ToIntFunction<T> handleOf, Function<T, K> keyExtractor) {
+        return new SecondaryIndex<>(handleOf, keyExtractor, true, null);
+    }
+
+    /**
+     * Declares a multimap index where many records may share a key
+     */
+    public static <T, K> SecondaryIndex<T, K> nonUnique(ToIntFunction<T> handleOf, Function<T, K> keyExtractor) {
+        return new SecondaryIndex<>(handleOf, keyExtractor, false, null);
+    }
+
+    /**
+     * Declares a non-unique index kept in natural key order
+     */
+    public static <T, K extends Comparable<? super K>> SecondaryIndex<T, K> sorted(ToIntFunction<T> handleOf,
+                                                                                 Function<T, K> keyExtractor) {
+        return new SecondaryIndex<>(handleOf, keyExtractor, false, Comparator.naturalOrder());
+    }
+
+    /**
+     * Declares a non-unique index kept in the given key order
+     */
+    public static <T, K> SecondaryIndex<T, K> sorted(ToIntFunction<T> handleOf, Function<T, K> keyExtractor,
+                                                     Comparator<? super K> order) {
+        return new SecondaryIndex<>(handleOf, keyExtractor, false, order);
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * Returns true if adding item would break uniqueness.
+     * The record being replaced (if any) is not counted as a conflict.
+     */
+    public boolean conflicts(T item, T replacing) {
+        if (!unique) {
+            return false;
+        }
+        K key = keyExtractor.apply(item);
+        if (key == null) {
+            return false;
+        }
+        T existing = records.get(key);
+        return existing != null && existing != replacing;
+    }
+
+    public void add(T item) {
+        K key = keyExtractor.apply(item);
+        if (key == null) {
+            return;
+        }
+        if (unique) {
+            if (records.putIfAbsent(key, item) != null) {
+                return;
+            }
+        } else {
+            entries.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(item);
+        }
+        indexedKeys.put(handleOf.applyAsInt(item), key);
+    }
+
+    /**
+     * Removes item; returns the key it was indexed under (which may predate an in-place
+     * change), or null if it was not indexed
+     */
+    public K remove(T item) {
+        int handle = handleOf.applyAsInt(item);
+        K key = indexedKeys.get(handle);
+        if (key == null || !removeUnder(key, item)) {
+            return null;
+        }
+        indexedKeys.remove(handle);
+        return key;
+    }
+
+    private boolean removeUnder(K key, T item) {
+        if (unique) {
+            if (records.get(key) != item) {
+                return false;
+            }
+            records.remove(key);
+            return true;
+        }
+        Set<T> bucket = entries.get(key);
+        if (bucket == null || !bucket.remove(item)) {
+            return false;
+        }
+        if (bucket.isEmpty()) {
+            entries.remove(key);
+        }
+        return true;
+    }
+
+    /**
+     * All records indexed under key, in insertion order
+     */
+    public List<T> find(K key) {
+        List<T> found = new ArrayList<>();
+        if (unique) {
+            T record = records.get(key);
+            if (record != null) {
+                found.add(record);
+            }
+            return found;
+        }
+        Set<T> bucket = entries.get(key);
+        if (bucket != null) {
+            found.addAll(bucket);
+        }
+        return found;
+    }
+
+    /**
+     * First record indexed under key, or null
+     */
+    public T findFirst(K key) {
+        if (unique) {
+            return records.get(key);
+        }
+        Set<T> bucket = entries.get(key);
+        if (bucket == null || bucket.isEmpty()) {
+            return null;
+        }
+        return bucket.iterator().next();
+    }
+
+    /**
+     * Number of records indexed under key
+     */
+    public int count(K key) {
+        if (unique) {
+            return records.containsKey(key) ? 1 : 0;
+        }
+        Set<T> bucket = entries.get(key);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    /**
+     * Records with from <= key <= to in key order, then insertion order; a null bound is open.
+     * Only for sorted indexes.
+     */
+    public List<T> range(K from, K to) {
+        NavigableMap<K, Set<T>> sorted = sortedEntries();
+        NavigableMap<K, Set<T>> slice;
+        if (from == null && to == null) {
+            slice = sorted;
+        } else if (from == null) {
+            slice = sorted.headMap(to, true);
+        } else if (to == null) {
+            slice = sorted.tailMap(from, true);
+        } else if (sorted.comparator().compare(from, to) > 0) {
+            return new ArrayList<>();
+        } else {
+            slice = sorted.subMap(from, true, to, true);
+        }
+        return flatten(slice.values());
+    }
+
+    /**
+     * All records in key order, then insertion order. Only for sorted indexes.
+     */
+    public List<T> ascending() {
+        return flatten(sortedEntries().values());
+    }
+
+    /**
+     * All records in reverse key order, then insertion order. Only for sorted indexes.
+     */
+    public List<T> descending() {
+        return flatten(sortedEntries().descendingMap().values());
+    }
+
+    private NavigableMap<K, Set<T>> sortedEntries() {
+        if (!(entries instanceof NavigableMap)) {
+            throw new IllegalStateException("not a sorted index");
+        }
+        return (NavigableMap<K, Set<T>>) entries;
+    }
+
+    private List<T> flatten(Collection<Set<T>> buckets) {
+        List<T> items = new ArrayList<>();
+        for (Set<T> bucket : buckets) {
+            items.addAll(bucket);
+        }
+        return items;
+    }
+
+    /**
+     * Read-only view of the distinct keys
+     */
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(unique ? records.keySet() : entries.keySet());
+    }
+
+    public void clear() {
+        indexedKeys.clear();
+        if (unique) {
+            records.clear();
+        } else {
+            entries.clear();
+        }
+    }
+}
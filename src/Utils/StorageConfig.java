@@ -0,0 +1,153 @@
+package Utils;
+
+import java.io.File;
+
+/**
+ * Storage settings shared by the DAOs (data directory and persistence mode)
+ */
+public class StorageConfig {
+    private String dataDirectory = "data";
+    private boolean journalEnabled = false;
+    private int checkpointInterval = 10000;
+    private boolean writeBehindEnabled = false;
+    private long flushWindowMillis = 5;
+    private int flushMaxMutations = 1000;
+    private boolean lazyLoadingEnabled = false;
+    private int pageSize = 64 * 1024;
+    private int pageCacheSize = 256;
+    private int queryCacheSize = 0;
+    private int studentShards = 1;
+
+    // Default constructor
+    public StorageConfig() {
+    }
+
+    // Getter methods
+    public String getDataDirectory() {
+        return dataDirectory;
+    }
+
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    public long getFlushWindowMillis() {
+        return flushWindowMillis;
+    }
+
+    public int getFlushMaxMutations() {
+        return flushMaxMutations;
+    }
+
+    public boolean isLazyLoadingEnabled() {
+        return lazyLoadingEnabled;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getPageCacheSize() {
+        return pageCacheSize;
+    }
+
+    public int getQueryCacheSize() {
+        return queryCacheSize;
+    }
+
+    public int getStudentShards() {
+        return studentShards;
+    }
+
+    // Setter methods
+    public void setDataDirectory(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+
+    /**
+     * When enabled, mutations are appended to a journal instead of rewriting the
+     * snapshot. Without write-behind every mutation is fsynced before it returns;
+     * with it, one fsync covers all mutations of a flush window
+     */
+    public void setJournalEnabled(boolean journalEnabled) {
+        this.journalEnabled = journalEnabled;
+    }
+
+    /**
+     * Number of journal entries after which the journal is folded into a fresh snapshot
+     */
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * When enabled, saves only mark the DAO dirty and a background thread writes
+     * all changes made within the flush window in one go
+     */
+    public void setWriteBehindEnabled(boolean writeBehindEnabled) {
+        this.writeBehindEnabled = writeBehindEnabled;
+    }
+
+    public void setFlushWindowMillis(long flushWindowMillis) {
+        this.flushWindowMillis = flushWindowMillis;
+    }
+
+    /**
+     * Number of pending mutations that triggers a flush before the window expires
+     */
+    public void setFlushMaxMutations(int flushMaxMutations) {
+        this.flushMaxMutations = flushMaxMutations;
+    }
+
+    /**
+     * When enabled, DAOs open with only the record directory and read records on
+     * first access; the full data set is loaded the first time it is needed
+     */
+    public void setLazyLoadingEnabled(boolean lazyLoadingEnabled) {
+        this.lazyLoadingEnabled = lazyLoadingEnabled;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Maximum number of file pages kept in memory by a lazily loaded DAO
+     */
+    public void setPageCacheSize(int pageCacheSize) {
+        this.pageCacheSize = pageCacheSize;
+    }
+
+    /**
+     * Maximum number of query results each DAO keeps cached; 0 turns the cache off
+     */
+    public void setQueryCacheSize(int queryCacheSize) {
+        this.queryCacheSize = queryCacheSize;
+    }
+
+    /**
+     * Number of files the student snapshot is split into by ID; shards load in parallel
+     * and a save rewrites only the shards that changed. 1 keeps the single students.dat.
+     */
+    public void setStudentShards(int studentShards) {
+        if (studentShards < 1) {
+            throw new IllegalArgumentException("Student shards must be at least 1");
+        }
+        this.studentShards = studentShards;
+    }
+
+    /**
+     * Resolves a file name against the data directory
+     */
+    public String resolve(String filename) {
+        return new File(dataDirectory, filename).getPath();
+    }
+}
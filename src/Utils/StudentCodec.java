@@ -0,0 +1,64 @@
+package Utils;
+
+import Models.Student;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary layout of a Student.
+ * Version 1: id, age, gpa, name, email, major, course count, course IDs.
+ */
+public class StudentCodec implements RecordCodec<Student> {
+    public static final StudentCodec INSTANCE = new StudentCodec();
+
+    @Override
+    public String recordType() {
+        return "Student";
+    }
+
+    @Override
+    public int schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public void encode(Student student, RecordWriter out) {
+        out.writeInt(student.getId());
+        out.writeInt(student.getAge());
+        out.writeDouble(student.getGpa());
+        out.writeString(student.getName());
+        out.writeString(student.getEmail());
+        out.writeString(student.getMajor());
+        // One read of the course list, so a concurrent enroll or drop cannot skew count and entries
+        List<String> courses = student.getEnrolledCourses();
+        out.writeVarInt(courses.size());
+        for (String courseId : courses) {
+            out.writeString(courseId);
+        }
+    }
+
+    @Override
+    public Student decode(RecordReader in, int schemaVersion) {
+        int id = in.readInt();
+        int age = in.readInt();
+        double gpa = in.readDouble();
+        String name = in.readString();
+        String email = in.readString();
+        String major = in.readString();
+        Student student = new Student(name, id, email, age, major, gpa);
+        int courseCount = in.readVarInt();
+        if (courseCount > 0) {
+            List<String> courses = new ArrayList<>(courseCount);
+            for (int i = 0; i < courseCount; i++) {
+                courses.add(in.readString());
+            }
+            student.setEnrolledCourses(courses);
+        }
+        return student;
+    }
+
+    @Override
+    public long directoryKey(Student student) {
+        return student.getId();
+    }
+}
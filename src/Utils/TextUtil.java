@@ -0,0 +1,13 @@
+package Utils;
+
+import java.util.Locale;
+
+public class TextUtil {
+    
+    /**
+     * Normalizes a case-insensitive identifier (e.g. a course ID) to its lookup key
+     */
+    public static String normalizeKey(String value) {
+        return value == null ? null : value.trim().toUpperCase(Locale.ROOT);
+    }
+}
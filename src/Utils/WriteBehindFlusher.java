@@ -0,0 +1,158 @@
+package Utils;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Group-commit helper for write-behind persistence.
+ * Callers mark state dirty after each mutation; a background thread coalesces every
+ * mutation made within the flush window (or until the mutation limit is reached)
+ * into a single call of the flush action.
+ */
+public class WriteBehindFlusher implements AutoCloseable {
+    private final BooleanSupplier flushAction;
+    private final long windowMillis;
+    private final int maxMutations;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final Object flushLock = new Object();
+
+    private long dirtySequence;
+    private long durableSequence;
+    private int pendingMutations;
+    private boolean scheduled;
+    private boolean closed;
+
+    /**
+     * @param name          name of the background flusher thread
+     * @param flushAction   writes the current state; returns false if the write failed
+     * @param windowMillis  how long mutations are collected before a flush
+     * @param maxMutations  number of pending mutations that triggers an immediate flush
+     */
+    public WriteBehindFlusher(String name, BooleanSupplier flushAction, long windowMillis, int maxMutations) {
+        this.flushAction = flushAction;
+        this.windowMillis = windowMillis;
+        this.maxMutations = maxMutations;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // close() flushes itself, so a flush still waiting for its window must not hold it up
+        scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Records that a mutation happened and schedules a flush if none is pending
+     */
+    public synchronized void markDirty() {
+        if (closed) {
+            throw new IllegalStateException("Flusher is closed");
+        }
+        dirtySequence++;
+        pendingMutations++;
+        if (pendingMutations >= maxMutations) {
+            scheduled = true;
+            scheduler.execute(this::runFlush);
+        } else if (!scheduled) {
+            scheduled = true;
+            scheduler.schedule(this::runFlush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Synchronously writes all pending mutations; returns true once they are durable
+     */
+    public boolean flush() {
+        long target;
+        synchronized (this) {
+            target = dirtySequence;
+        }
+        runFlush();
+        synchronized (this) {
+            return durableSequence >= target;
+        }
+    }
+
+    /**
+     * Waits until every mutation marked so far has been written, or the timeout expires
+     */
+    public boolean awaitDurable(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (this) {
+            long target = dirtySequence;
+            if (durableSequence < target && !closed) {
+                scheduled = true;
+                scheduler.execute(this::runFlush);
+            }
+            while (durableSequence < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns true if there are mutations that have not been written yet
+     */
+    public synchronized boolean isDirty() {
+        return durableSequence < dirtySequence;
+    }
+
+    private void runFlush() {
+        synchronized (flushLock) {
+            long target;
+            synchronized (this) {
+                scheduled = false;
+                pendingMutations = 0;
+                target = dirtySequence;
+                if (durableSequence >= target) {
+                    return;
+                }
+            }
+
+            boolean written;
+            try {
+                written = flushAction.getAsBoolean();
+            } catch (RuntimeException e) {
+                System.err.println("Error in write-behind flush: " + e.getMessage());
+                written = false;
+            }
+
+            synchronized (this) {
+                if (written) {
+                    durableSequence = Math.max(durableSequence, target);
+                    notifyAll();
+                } else if (!scheduled && !closed) {
+                    // Retry after another window rather than losing the changes
+                    scheduled = true;
+                    scheduler.schedule(this::runFlush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes whatever is pending and stops the background thread
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        runFlush();
+    }
+}